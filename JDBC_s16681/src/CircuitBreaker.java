@@ -0,0 +1,80 @@
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Circuit breaker guarding database access
+ * After repeated failures calls fail fast for a cool-down period, then a single
+ * probe call is let through to test whether the database has recovered
+ */
+public class CircuitBreaker {
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long openMillis;
+
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private volatile long openedAt;
+
+    /**
+     * @param failureThreshold Consecutive failures that open the circuit
+     * @param openMillis How long the circuit stays open before a probe is allowed
+     */
+    public CircuitBreaker(int failureThreshold, long openMillis) {
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+    }
+
+    /**
+     * Check whether a call may go to the database
+     * @return true if the call should proceed, false if it should fail fast
+     */
+    public boolean allowRequest() {
+        switch (state.get()) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                // Exactly one caller wins the transition and becomes the probe
+                return System.currentTimeMillis() - openedAt >= openMillis
+                        && state.compareAndSet(State.OPEN, State.HALF_OPEN);
+            default:
+                // A probe is already in flight
+                return false;
+        }
+    }
+
+    /**
+     * Record a call that reached the database successfully
+     * Only a closed or half-open circuit is closed by it: a call that started before the
+     * circuit opened and finishes afterwards says nothing about the database now
+     */
+    public void recordSuccess() {
+        if (state.get() == State.OPEN) {
+            return;
+        }
+        consecutiveFailures.set(0);
+        state.compareAndSet(State.HALF_OPEN, State.CLOSED);
+    }
+
+    /**
+     * Record a call that failed because the database was unreachable or too slow
+     */
+    public void recordFailure() {
+        if (state.get() == State.HALF_OPEN) {
+            trip();
+        } else if (consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            trip();
+        }
+    }
+
+    public State getState() {
+        return state.get();
+    }
+
+    private void trip() {
+        openedAt = System.currentTimeMillis();
+        if (state.getAndSet(State.OPEN) != State.OPEN) {
+            System.err.println("Database circuit opened; failing fast for " + openMillis + " ms");
+        }
+    }
+}
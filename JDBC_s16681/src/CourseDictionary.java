@@ -0,0 +1,134 @@
+import java.sql.*;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process copy of the courses table
+ * Resolves course ids to names without joins and hands out one canonical String
+ * per course, so every loaded Student shares it
+ */
+public class CourseDictionary {
+
+    /**
+     * Prepares the dictionary's statements, so they get the caller's query timeout and tracing
+     */
+    @FunctionalInterface
+    public interface StatementFactory {
+        PreparedStatement prepare(Connection conn, String sql) throws SQLException;
+    }
+
+    private final StatementFactory statements;
+    private final ConcurrentHashMap<Integer, String> namesById = new ConcurrentHashMap<>();
+    // Keyed by lower-cased name to match the case-insensitive UNIQUE on courses.name
+    private final ConcurrentHashMap<String, Integer> idsByName = new ConcurrentHashMap<>();
+
+    public CourseDictionary(StatementFactory statements) {
+        this.statements = statements;
+    }
+
+    /**
+     * Load every course; the table holds a few hundred rows at most
+     */
+    public void load(Connection conn) throws SQLException {
+        try (PreparedStatement pstmt = statements.prepare(conn, "SELECT id, name FROM courses");
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                remember(rs.getInt(1), rs.getString(2));
+            }
+        }
+    }
+
+    /**
+     * Get the id for a course, adding the course if it is new
+     * @param conn Connection used only when the course is not cached
+     * @param name Course name as entered
+     * @return Course id
+     */
+    public int idFor(Connection conn, String name) throws SQLException {
+        if (name == null) {
+            // Same SQLState MySQL uses for a NOT NULL violation
+            throw new SQLException("Course cannot be null", "23000");
+        }
+        Integer id = idsByName.get(key(name));
+        if (id != null) {
+            return id;
+        }
+
+        // Look first so an existing course does not burn an AUTO_INCREMENT value
+        id = selectId(conn, name);
+        if (id == null) {
+            try (PreparedStatement pstmt = statements.prepare(conn, "INSERT IGNORE INTO courses(name) VALUES(?)")) {
+                pstmt.setString(1, name);
+                pstmt.executeUpdate();
+            }
+            id = selectId(conn, name);
+            if (id == null) {
+                throw new SQLException("Could not create course: " + name);
+            }
+        }
+        return id;
+    }
+
+    /**
+     * Get the canonical name for a course id
+     * @param conn Connection used only when the id was added by another process
+     * @return Course name, or null if no such course exists
+     */
+    public String nameFor(Connection conn, int id) throws SQLException {
+        String name = namesById.get(id);
+        if (name != null) {
+            return name;
+        }
+
+        try (PreparedStatement pstmt = statements.prepare(conn, "SELECT id, name FROM courses WHERE id = ?")) {
+            pstmt.setInt(1, id);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? remember(rs.getInt(1), rs.getString(2)) : null;
+            }
+        }
+    }
+
+    /**
+     * Get the id of an existing course without creating it
+     * @param conn Connection used only when the course is not cached
+     * @return Course id, or null if no such course exists
+     */
+    public Integer lookupId(Connection conn, String name) throws SQLException {
+        Integer id = idsByName.get(key(name));
+        return id != null ? id : selectId(conn, name);
+    }
+
+    public int size() {
+        return namesById.size();
+    }
+
+    private Integer selectId(Connection conn, String name) throws SQLException {
+        try (PreparedStatement pstmt = statements.prepare(conn, "SELECT id, name FROM courses WHERE name = ?")) {
+            pstmt.setString(1, name);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                int id = rs.getInt(1);
+                remember(id, rs.getString(2));
+                return id;
+            }
+        }
+    }
+
+    /**
+     * Cache a course and return its canonical name instance
+     */
+    private String remember(int id, String name) {
+        String canonical = namesById.putIfAbsent(id, name);
+        if (canonical == null) {
+            canonical = name;
+        }
+        idsByName.putIfAbsent(key(canonical), id);
+        return canonical;
+    }
+
+    private static String key(String name) {
+        return name.stripTrailing().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,124 @@
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter over student emails
+ * A negative answer is definite, so lookups for emails it has never seen can skip the database;
+ * safe for concurrent adds and queries without locking
+ *
+ * Only plain ASCII emails are normalised exactly as the accent-insensitive UNIQUE index
+ * compares them, so a lookup for any other email is never ruled out, and once such an
+ * email has been added no lookup is, since a plain email may equal it under the collation
+ */
+public class EmailBloomFilter {
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+    private final AtomicLong insertions = new AtomicLong();
+    private volatile boolean holdsNonPlainEmail;
+
+    /**
+     * Size a filter for the expected number of emails and target false-positive rate
+     * @param expectedEmails Number of emails the filter should hold before it degrades
+     * @param falsePositiveRate Target rate, e.g. 0.01 for 1%
+     */
+    public EmailBloomFilter(long expectedEmails, double falsePositiveRate) {
+        long n = Math.max(1, expectedEmails);
+        // Optimal size m = -n ln p / (ln 2)^2, rounded up to whole 64-bit words
+        long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.max(1, (m + 63) / 64);
+        this.bits = new AtomicLongArray(words);
+        this.bitCount = words * 64L;
+        // Optimal hash count k = m/n ln 2
+        this.hashCount = (int) Math.max(1, Math.round((double) bitCount / n * Math.log(2)));
+    }
+
+    /**
+     * Record an email as present
+     */
+    public void add(String email) {
+        if (!SearchResultCache.isPlain(email)) {
+            holdsNonPlainEmail = true;
+        }
+        long hash = hash(email);
+        long h1 = hash;
+        long h2 = (hash >>> 32) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            long mask = 1L << bit;
+            int word = (int) (bit >>> 6);
+            if ((bits.get(word) & mask) == 0) {
+                bits.getAndAccumulate(word, mask, (current, m) -> current | m);
+            }
+        }
+        insertions.incrementAndGet();
+    }
+
+    /**
+     * Whether a negative answer for this email can be trusted
+     */
+    public boolean canRuleOut(String email) {
+        return !holdsNonPlainEmail && SearchResultCache.isPlain(email);
+    }
+
+    /**
+     * Check whether an email may be present
+     * @return false if the email was definitely never added, true if it may have been
+     *         or if the filter cannot rule it out
+     */
+    public boolean mightContain(String email) {
+        if (!canRuleOut(email)) {
+            return true;
+        }
+        long hash = hash(email);
+        long h1 = hash;
+        long h2 = (hash >>> 32) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Estimated false-positive rate for the emails added so far: (1 - e^(-kn/m))^k
+     */
+    public double expectedFalsePositiveRate() {
+        double fill = 1 - Math.exp(-hashCount * (double) insertions.get() / bitCount);
+        return Math.pow(fill, hashCount);
+    }
+
+    public long getInsertions() {
+        return insertions.get();
+    }
+
+    public long getMemoryBytes() {
+        return bitCount / 8;
+    }
+
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    /**
+     * 64-bit FNV-1a over the normalised email, finished with a MurmurHash3 mix
+     * Plain emails are normalised like MySQL's case-insensitive, trailing-space-insensitive UNIQUE
+     */
+    private static long hash(String email) {
+        String key = email.stripTrailing().toLowerCase(Locale.ROOT);
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,307 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory student repository for tests and read-mostly deployments
+ * Reads never lock: stored students are immutable snapshots swapped in whole,
+ * and the indexes are concurrent maps. Writes to the same id are
+ * serialized by a striped lock so the name index always ends up matching the row
+ */
+public class InMemoryStudentRepository implements StudentRepository {
+    private final ConcurrentHashMap<Integer, Row> studentsById = new ConcurrentHashMap<>();
+    // Unique index; keys are lower-cased to match MySQL's case-insensitive UNIQUE
+    private final ConcurrentHashMap<String, Integer> idsByEmail = new ConcurrentHashMap<>();
+    // Sorted by lower-cased name so search results come back in name order;
+    // values are small immutable id arrays replaced atomically
+    private final ConcurrentSkipListMap<String, int[]> idsByName = new ConcurrentSkipListMap<>();
+    private final AtomicInteger nextId = new AtomicInteger(1);
+    // One shared String per course, like the course dictionary of the MySQL backend
+    private final ConcurrentHashMap<String, String> canonicalCourses = new ConcurrentHashMap<>();
+    // Writers of different ids rarely share a stripe, so they still run in parallel
+    private final Object[] writeLocks = new Object[64];
+
+    public InMemoryStudentRepository() {
+        for (int i = 0; i < writeLocks.length; i++) {
+            writeLocks[i] = new Object();
+        }
+    }
+
+    /**
+     * Nothing to set up; present for interface compatibility
+     */
+    @Override
+    public void initializeDatabase() {
+        System.out.println("In-memory repository ready!");
+    }
+
+    @Override
+    public WriteResult addStudent(Student student) {
+        if (!isComplete(student)) {
+            return WriteResult.REJECTED;
+        }
+
+        // Like AUTO_INCREMENT, an id consumed by a rejected insert is not reused
+        int id = nextId.getAndIncrement();
+        if (idsByEmail.putIfAbsent(emailKey(student.getEmail()), id) != null) {
+            return WriteResult.REJECTED;
+        }
+        // Held so a delete of the new id cannot run between the row and its index entry
+        synchronized (lockFor(id)) {
+            studentsById.put(id, new Row(stored(id, student)));
+            addToNameIndex(student.getName(), id);
+        }
+        student.setId(id);
+        return WriteResult.APPLIED;
+    }
+
+    @Override
+    public QueryResult<List<Student>> getAllStudents() {
+        List<Student> students = new ArrayList<>(studentsById.size());
+        for (Row row : studentsById.values()) {
+            students.add(copyOf(row.student));
+        }
+        students.sort(Comparator.comparingInt(Student::getId));
+        return QueryResult.of(students);
+    }
+
+    @Override
+    public QueryResult<Student> findStudentById(int id) {
+        return QueryResult.of(copyOf(current(id)));
+    }
+
+    @Override
+    public QueryResult<Student> findStudentByEmail(String email) {
+        if (email == null) {
+            return QueryResult.notFound();
+        }
+        String key = emailKey(email);
+        Integer id = idsByEmail.get(key);
+        if (id == null) {
+            return QueryResult.notFound();
+        }
+        // The index may briefly point at a row that is mid-insert or mid-update
+        Student student = current(id);
+        if (student == null || !emailKey(student.getEmail()).equals(key)) {
+            return QueryResult.notFound();
+        }
+        return QueryResult.of(copyOf(student));
+    }
+
+    @Override
+    public WriteResult updateStudent(Student student) {
+        if (!isComplete(student)) {
+            return WriteResult.REJECTED;
+        }
+        int id = student.getId();
+        Row updated = new Row(stored(id, student));
+        String newEmail = emailKey(student.getEmail());
+
+        synchronized (lockFor(id)) {
+            Row currentRow = studentsById.get(id);
+            if (currentRow == null) {
+                return WriteResult.NOT_FOUND;
+            }
+            Student current = currentRow.student;
+
+            String oldEmail = emailKey(current.getEmail());
+            boolean emailChanged = !oldEmail.equals(newEmail);
+            if (emailChanged) {
+                Integer owner = idsByEmail.putIfAbsent(newEmail, id);
+                if (owner != null && owner != id) {
+                    return WriteResult.REJECTED;
+                }
+            }
+
+            studentsById.put(id, updated);
+            if (emailChanged) {
+                idsByEmail.remove(oldEmail, id);
+            }
+            if (!nameKey(current.getName()).equals(nameKey(student.getName()))) {
+                removeFromNameIndex(current.getName(), id);
+                addToNameIndex(student.getName(), id);
+            }
+            return WriteResult.APPLIED;
+        }
+    }
+
+    @Override
+    public WriteResult deleteStudent(int id) {
+        synchronized (lockFor(id)) {
+            Row removedRow = studentsById.remove(id);
+            if (removedRow == null) {
+                return WriteResult.NOT_FOUND;
+            }
+            Student removed = removedRow.student;
+            idsByEmail.remove(emailKey(removed.getEmail()), id);
+            removeFromNameIndex(removed.getName(), id);
+            return WriteResult.APPLIED;
+        }
+    }
+
+    @Override
+    public QueryResult<Integer> getStudentCount() {
+        return QueryResult.of(studentsById.size());
+    }
+
+    /**
+     * Scan distinct names rather than all rows; results are re-checked against
+     * the current row so a concurrent rename never produces a wrong match, and
+     * de-duplicated since the scan can meet a renamed id under both names
+     */
+    @Override
+    public QueryResult<List<Student>> searchStudentsByName(String name) {
+        List<Student> students = new ArrayList<>();
+        if (name == null) {
+            return QueryResult.of(students);
+        }
+        String term = name.toLowerCase(Locale.ROOT);
+        Set<Integer> seen = new HashSet<>();
+
+        for (Map.Entry<String, int[]> entry : idsByName.entrySet()) {
+            if (!entry.getKey().contains(term)) {
+                continue;
+            }
+            for (int id : entry.getValue()) {
+                Student student = current(id);
+                if (student != null && nameKey(student.getName()).contains(term) && seen.add(id)) {
+                    students.add(copyOf(student));
+                }
+            }
+        }
+        return QueryResult.of(students);
+    }
+
+    /**
+     * A name prefix narrows the scan to a range of the name index; otherwise all rows are filtered
+     */
+    @Override
+    public QueryResult<List<Student>> findStudents(StudentQuery query) {
+        List<Student> students = new ArrayList<>();
+        if (query.getNameStartsWith() != null) {
+            String prefix = nameKey(query.getNameStartsWith());
+            Set<Integer> seen = new HashSet<>();
+            for (int[] ids : idsByName.subMap(prefix, prefix + Character.MAX_VALUE).values()) {
+                for (int id : ids) {
+                    Student student = current(id);
+                    if (student != null && query.matches(student) && seen.add(id)) {
+                        students.add(copyOf(student));
+                    }
+                }
+            }
+        } else {
+            for (Row row : studentsById.values()) {
+                if (query.matches(row.student)) {
+                    students.add(copyOf(row.student));
+                }
+            }
+        }
+
+        students.sort(query.comparator());
+        if (query.getLimit() != null && students.size() > query.getLimit()) {
+            return QueryResult.of(new ArrayList<>(students.subList(0, query.getLimit())));
+        }
+        return QueryResult.of(students);
+    }
+
+    @Override
+    public boolean testConnection() {
+        return true;
+    }
+
+    /**
+     * Sizes of the name index and the shared course names
+     */
+    @Override
+    public Map<String, String> getStats() {
+        Map<String, String> stats = new LinkedHashMap<>();
+        stats.put("Distinct Names", Integer.toString(idsByName.size()));
+        stats.put("Courses", Integer.toString(canonicalCourses.size()));
+        return stats;
+    }
+
+    private Student current(int id) {
+        Row row = studentsById.get(id);
+        return row == null ? null : row.student;
+    }
+
+    private Object lockFor(int id) {
+        return writeLocks[Math.floorMod(id, writeLocks.length)];
+    }
+
+    /**
+     * Snapshot to store, with the course replaced by its canonical instance
+     */
+    private Student stored(int id, Student s) {
+        String course = canonicalCourses.computeIfAbsent(
+                s.getCourse().stripTrailing().toLowerCase(Locale.ROOT), key -> s.getCourse());
+        return new Student(id, s.getName(), s.getEmail(), s.getAge(), course);
+    }
+
+    private void addToNameIndex(String name, int id) {
+        idsByName.compute(nameKey(name), (key, ids) -> {
+            if (ids == null) {
+                return new int[] {id};
+            }
+            int[] grown = Arrays.copyOf(ids, ids.length + 1);
+            grown[ids.length] = id;
+            Arrays.sort(grown);
+            return grown;
+        });
+    }
+
+    private void removeFromNameIndex(String name, int id) {
+        idsByName.computeIfPresent(nameKey(name), (key, ids) -> {
+            int[] remaining = Arrays.stream(ids).filter(existing -> existing != id).toArray();
+            return remaining.length == 0 ? null : remaining;
+        });
+    }
+
+    /**
+     * Mirror the NOT NULL constraints of the students1 table
+     */
+    private static boolean isComplete(Student student) {
+        return student != null && student.getName() != null
+                && student.getEmail() != null && student.getCourse() != null;
+    }
+
+    private static String emailKey(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+
+    private static String nameKey(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Stored students are private copies that are never modified, only replaced
+     */
+    private static Student snapshot(int id, Student s) {
+        return new Student(id, s.getName(), s.getEmail(), s.getAge(), s.getCourse());
+    }
+
+    private static Student copyOf(Student s) {
+        return s == null ? null : snapshot(s.getId(), s);
+    }
+
+    /**
+     * Holder for a stored snapshot, so rows are told apart by identity;
+     * Student.equals only compares ids
+     */
+    private static final class Row {
+        final Student student;
+
+        Row(Student student) {
+            this.student = student;
+        }
+    }
+}
@@ -0,0 +1,414 @@
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Mixed-workload load generator for the student repositories
+ * Seeds a data set, drives a weighted mix of operations from worker threads and
+ * reports throughput and latency percentiles per operation
+ *
+ * Options (all optional):
+ *   --backend B         mysql or memory (default mysql)
+ *   --threads N         worker threads (default 8)
+ *   --duration S        measured seconds (default 30)
+ *   --warmup S          unmeasured warm-up seconds (default 5)
+ *   --seed N            students inserted before the run (default 1000)
+ *   --mix op=w,...      operation weights, ops: add,get,email,update,delete,search,count
+ *   --mode closed|open  closed: back-to-back calls; open: fixed arrival rate (default closed)
+ *   --rate N            total operations per second in open mode (default 1000)
+ *   --keep              keep the generated students instead of deleting them afterwards
+ */
+public class LoadGenerator {
+
+    enum Operation { ADD, GET, EMAIL, UPDATE, DELETE, SEARCH, COUNT }
+
+    private static final String DEFAULT_MIX = "add=5,get=40,email=20,update=10,delete=5,search=15,count=5";
+
+    private final StudentRepository studentRepository;
+    private final int threads;
+    private final long durationNanos;
+    private final long warmupNanos;
+    private final int seedSize;
+    private final Map<Operation, Integer> mix;
+    private final boolean openLoop;
+    private final double rate;
+    private final boolean keepData;
+
+    // Every generated student carries this tag so the run can find and remove its own rows
+    private final String runTag = "load" + Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong emailCounter = new AtomicLong();
+    // Ids of the students this run created; id-based operations only ever touch these,
+    // never other rows that happen to fall in the same id range
+    private final IdPool createdIds = new IdPool();
+
+    public LoadGenerator(StudentRepository studentRepository, int threads, int durationSeconds, int warmupSeconds,
+                         int seedSize, Map<Operation, Integer> mix, boolean openLoop, double rate,
+                         boolean keepData) {
+        this.studentRepository = studentRepository;
+        this.threads = threads;
+        this.durationNanos = durationSeconds * 1_000_000_000L;
+        this.warmupNanos = warmupSeconds * 1_000_000_000L;
+        this.seedSize = seedSize;
+        this.mix = mix;
+        this.openLoop = openLoop;
+        this.rate = rate;
+        this.keepData = keepData;
+    }
+
+    /**
+     * Main method - parse options and run the load test
+     */
+    public static void main(String[] args) throws InterruptedException {
+        Map<String, String> options = parseOptions(args);
+
+        StudentRepository repository = options.getOrDefault("backend", "mysql").equalsIgnoreCase("memory")
+                ? new InMemoryStudentRepository()
+                : new StudentDAO();
+        repository.initializeDatabase();
+
+        LoadGenerator generator = new LoadGenerator(
+                repository,
+                Integer.parseInt(options.getOrDefault("threads", "8")),
+                Integer.parseInt(options.getOrDefault("duration", "30")),
+                Integer.parseInt(options.getOrDefault("warmup", "5")),
+                Integer.parseInt(options.getOrDefault("seed", "1000")),
+                parseMix(options.getOrDefault("mix", DEFAULT_MIX)),
+                options.getOrDefault("mode", "closed").equalsIgnoreCase("open"),
+                Double.parseDouble(options.getOrDefault("rate", "1000")),
+                options.containsKey("keep"));
+        generator.run();
+    }
+
+    /**
+     * Seed, warm up, measure, report and clean up
+     */
+    public void run() throws InterruptedException {
+        System.out.println("Seeding " + seedSize + " students (tag " + runTag + ")...");
+        seed();
+
+        System.out.printf("Running %s loop with %d threads: %ds warm-up, %ds measured%n",
+                openLoop ? "open" : "closed", threads,
+                warmupNanos / 1_000_000_000L, durationNanos / 1_000_000_000L);
+        System.out.println("Mix: " + String.join(", ", describeMix(mix)));
+
+        Worker[] workers = new Worker[threads];
+        Thread[] workerThreads = new Thread[threads];
+        long start = System.nanoTime();
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Worker(start);
+            workerThreads[i] = new Thread(workers[i], "load-worker-" + i);
+            workerThreads[i].start();
+        }
+        for (Thread t : workerThreads) {
+            t.join();
+        }
+
+        report(workers);
+
+        if (!keepData) {
+            cleanup();
+        }
+    }
+
+    /**
+     * Insert the initial data set and remember the ids it was given
+     */
+    private void seed() {
+        for (int i = 0; i < seedSize; i++) {
+            Student student = newStudent();
+            if (studentRepository.addStudent(student).isApplied()) {
+                createdIds.add(student.getId());
+            }
+        }
+        if (createdIds.size() == 0) {
+            System.err.println("Warning: no students were seeded; id lookups will all miss");
+        }
+    }
+
+    /**
+     * Students created by this run, found by tag and confirmed by their generated email
+     */
+    private List<Student> findCreated() {
+        List<Student> created = new ArrayList<>();
+        for (Student s : studentRepository.searchStudentsByName(runTag).orElse(new ArrayList<>())) {
+            if (s.getEmail().startsWith(runTag + ".") && s.getEmail().endsWith("@example.com")) {
+                created.add(s);
+            }
+        }
+        return created;
+    }
+
+    private Student newStudent() {
+        long n = emailCounter.getAndIncrement();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return new Student(runTag + " Student " + n, emailFor(n),
+                18 + random.nextInt(10), "Course " + random.nextInt(20));
+    }
+
+    private String emailFor(long n) {
+        return runTag + "." + n + "@example.com";
+    }
+
+    /**
+     * Remove every student this run created
+     */
+    private void cleanup() {
+        List<Student> created = findCreated();
+        for (Student s : created) {
+            studentRepository.deleteStudent(s.getId());
+        }
+        System.out.println("Removed " + created.size() + " generated students.");
+    }
+
+    /**
+     * One worker thread with its own histograms, so recording never contends
+     */
+    private class Worker implements Runnable {
+        private final long start;
+        private final Map<Operation, LatencyHistogram> histograms = new EnumMap<>(Operation.class);
+        private final Map<Operation, Long> misses = new EnumMap<>(Operation.class);
+        private final int totalWeight;
+
+        Worker(long start) {
+            this.start = start;
+            int weight = 0;
+            for (Map.Entry<Operation, Integer> e : mix.entrySet()) {
+                histograms.put(e.getKey(), new LatencyHistogram());
+                misses.put(e.getKey(), 0L);
+                weight += e.getValue();
+            }
+            this.totalWeight = weight;
+        }
+
+        @Override
+        public void run() {
+            long measureFrom = start + warmupNanos;
+            long end = measureFrom + durationNanos;
+            // Open loop: this worker's share of the target rate, on a fixed schedule
+            long interval = openLoop ? (long) (1_000_000_000L * threads / rate) : 0;
+            long intended = start + ThreadLocalRandom.current().nextLong(Math.max(1, interval));
+
+            while (true) {
+                long now = System.nanoTime();
+                if (now >= end) {
+                    return;
+                }
+                long issuedAt;
+                if (openLoop) {
+                    if (intended > now) {
+                        sleepUntil(intended);
+                    }
+                    // Latency counts from when the request was due, so a stalled system
+                    // is charged for the queue it builds up (no coordinated omission)
+                    issuedAt = intended;
+                    intended += interval;
+                } else {
+                    issuedAt = now;
+                }
+
+                Operation op = pick();
+                boolean ok = execute(op);
+                long finished = System.nanoTime();
+
+                if (issuedAt >= measureFrom && finished <= end) {
+                    histograms.get(op).record(finished - issuedAt);
+                    if (!ok) {
+                        misses.merge(op, 1L, Long::sum);
+                    }
+                }
+            }
+        }
+
+        private Operation pick() {
+            int roll = ThreadLocalRandom.current().nextInt(totalWeight);
+            for (Map.Entry<Operation, Integer> e : mix.entrySet()) {
+                roll -= e.getValue();
+                if (roll < 0) {
+                    return e.getKey();
+                }
+            }
+            throw new IllegalStateException("Operation mix is empty");
+        }
+
+        /**
+         * Run one operation
+         * @return false if it found nothing or reported a failure
+         */
+        private boolean execute(Operation op) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            switch (op) {
+                case ADD: {
+                    Student student = newStudent();
+                    if (!studentRepository.addStudent(student).isApplied()) {
+                        return false;
+                    }
+                    // addStudent set the generated id, so no lookup is needed to pool it
+                    createdIds.add(student.getId());
+                    return true;
+                }
+                case GET: {
+                    int id = createdIds.random();
+                    return id > 0 && studentRepository.getStudentById(id) != null;
+                }
+                case EMAIL:
+                    return studentRepository.getStudentByEmail(emailFor(random.nextLong(Math.max(1, emailCounter.get())))) != null;
+                case UPDATE: {
+                    int id = createdIds.random();
+                    Student student = id > 0 ? studentRepository.getStudentById(id) : null;
+                    if (student == null) {
+                        return false;
+                    }
+                    student.setAge(18 + random.nextInt(10));
+                    return studentRepository.updateStudent(student).isApplied();
+                }
+                case DELETE: {
+                    int id = createdIds.removeRandom();
+                    if (id <= 0) {
+                        return false;
+                    }
+                    WriteResult result = studentRepository.deleteStudent(id);
+                    if (result == WriteResult.FAILED) {
+                        // Still there, so still ours to use
+                        createdIds.add(id);
+                    }
+                    return result.isApplied();
+                }
+                case SEARCH:
+                    return !studentRepository.searchStudentsByName(runTag + " Student " + random.nextInt(seedSize + 1))
+                            .orElse(new ArrayList<>()).isEmpty();
+                case COUNT:
+                    return studentRepository.getStudentCount().orElse(0) > 0;
+                default:
+                    throw new IllegalArgumentException("Unknown operation: " + op);
+            }
+        }
+
+        private void sleepUntil(long deadline) {
+            long remaining;
+            while ((remaining = deadline - System.nanoTime()) > 0) {
+                try {
+                    Thread.sleep(remaining / 1_000_000, (int) (remaining % 1_000_000));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Ids shared by the workers, with constant-time random pick and removal
+     */
+    private static final class IdPool {
+        private final List<Integer> ids = new ArrayList<>();
+
+        synchronized void add(int id) {
+            ids.add(id);
+        }
+
+        synchronized int size() {
+            return ids.size();
+        }
+
+        /**
+         * @return A random id, or 0 if the pool is empty
+         */
+        synchronized int random() {
+            return ids.isEmpty() ? 0 : ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+        }
+
+        /**
+         * Remove a random id, swapping the last one into its place
+         * @return The removed id, or 0 if the pool is empty
+         */
+        synchronized int removeRandom() {
+            if (ids.isEmpty()) {
+                return 0;
+            }
+            int index = ThreadLocalRandom.current().nextInt(ids.size());
+            int id = ids.get(index);
+            ids.set(index, ids.get(ids.size() - 1));
+            ids.remove(ids.size() - 1);
+            return id;
+        }
+    }
+
+    /**
+     * Merge the workers' histograms and print one line per operation
+     */
+    private void report(Worker[] workers) {
+        double seconds = durationNanos / 1e9;
+        LatencyHistogram all = new LatencyHistogram();
+
+        System.out.println("\n=== LOAD TEST RESULTS ===");
+        System.out.printf("%-8s %10s %10s %8s %10s %10s %10s %10s %10s %10s %10s%n",
+                "op", "count", "ops/s", "misses", "min ms", "mean ms", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Operation op : mix.keySet()) {
+            LatencyHistogram merged = new LatencyHistogram();
+            long missed = 0;
+            for (Worker w : workers) {
+                merged.add(w.histograms.get(op));
+                missed += w.misses.get(op);
+            }
+            all.add(merged);
+            printRow(op.name().toLowerCase(), merged, missed, seconds);
+        }
+        printRow("total", all, -1, seconds);
+    }
+
+    private static void printRow(String label, LatencyHistogram h, long misses, double seconds) {
+        System.out.printf("%-8s %10d %10.1f %8s %10.3f %10.3f %10.3f %10.3f %10.3f %10.3f %10.3f%n",
+                label, h.getTotalCount(), h.getTotalCount() / seconds,
+                misses < 0 ? "" : Long.toString(misses),
+                h.getMinValue() / 1e6, h.getMean() / 1e6, h.getValueAtPercentile(50) / 1e6, h.getValueAtPercentile(90) / 1e6,
+                h.getValueAtPercentile(99) / 1e6, h.getValueAtPercentile(99.9) / 1e6,
+                h.getMaxValue() / 1e6);
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + args[i]);
+            }
+            String key = args[i].substring(2);
+            if (i + 1 < args.length && !args[i + 1].startsWith("--")) {
+                options.put(key, args[++i]);
+            } else {
+                options.put(key, "");
+            }
+        }
+        return options;
+    }
+
+    static Map<Operation, Integer> parseMix(String spec) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String part : spec.split(",")) {
+            String[] kv = part.trim().split("=");
+            if (kv.length != 2) {
+                throw new IllegalArgumentException("Invalid mix entry: " + part);
+            }
+            int weight = Integer.parseInt(kv[1].trim());
+            if (weight > 0) {
+                mix.put(Operation.valueOf(kv[0].trim().toUpperCase()), weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("Operation mix must contain at least one positive weight");
+        }
+        return mix;
+    }
+
+    /**
+     * List the operations in a mix, for display
+     */
+    static List<String> describeMix(Map<Operation, Integer> mix) {
+        List<String> parts = new ArrayList<>();
+        mix.forEach((op, w) -> parts.add(op.name().toLowerCase() + "=" + w));
+        return parts;
+    }
+}
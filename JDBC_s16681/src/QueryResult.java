@@ -0,0 +1,78 @@
+/**
+ * Outcome of a database read
+ * Distinguishes a row that does not exist, or an empty result, from a read that could not be answered
+ */
+public final class QueryResult<T> {
+    public enum Status { FOUND, NOT_FOUND, FAILED }
+
+    private final Status status;
+    private final T value;
+    private final String error;
+
+    private QueryResult(Status status, T value, String error) {
+        this.status = status;
+        this.value = value;
+        this.error = error;
+    }
+
+    /**
+     * Wrap a lookup value; null means not found
+     */
+    public static <T> QueryResult<T> of(T value) {
+        return value == null ? notFound() : new QueryResult<>(Status.FOUND, value, null);
+    }
+
+    public static <T> QueryResult<T> notFound() {
+        return new QueryResult<>(Status.NOT_FOUND, null, null);
+    }
+
+    public static <T> QueryResult<T> failed(String error) {
+        return new QueryResult<>(Status.FAILED, null, error);
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public boolean isFound() {
+        return status == Status.FOUND;
+    }
+
+    public boolean isNotFound() {
+        return status == Status.NOT_FOUND;
+    }
+
+    public boolean isFailed() {
+        return status == Status.FAILED;
+    }
+
+    /**
+     * Get the value, or null if not found or failed
+     */
+    public T getValue() {
+        return value;
+    }
+
+    /**
+     * Get the value if found, otherwise the given fallback
+     */
+    public T orElse(T other) {
+        return status == Status.FOUND ? value : other;
+    }
+
+    /**
+     * Get the failure description, or null if the lookup succeeded
+     */
+    public String getError() {
+        return error;
+    }
+
+    @Override
+    public String toString() {
+        return switch (status) {
+            case FOUND -> "FOUND(" + value + ")";
+            case NOT_FOUND -> "NOT_FOUND";
+            case FAILED -> "FAILED(" + error + ")";
+        };
+    }
+}
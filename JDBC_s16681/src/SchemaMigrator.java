@@ -0,0 +1,355 @@
+import java.sql.*;
+import java.util.List;
+
+/**
+ * Applies versioned schema migrations to the student database
+ * Startup only pays for a single version check once the schema is current
+ */
+public class SchemaMigrator {
+    // MySQL error codes the migrator reacts to
+    private static final int ER_BAD_DB_ERROR = 1049;
+    private static final int ER_NO_SUCH_TABLE = 1146;
+    private static final int ER_DUP_KEYNAME = 1061;
+
+    // Rows backfilled per transaction, keeping row locks short while the app is live
+    private static final int BACKFILL_BATCH_SIZE = 5_000;
+
+    // Named lock so two instances starting together do not migrate concurrently
+    private static final String MIGRATION_LOCK = "student_db.schema_migration";
+    private static final int LOCK_TIMEOUT_SECONDS = 30;
+
+    /**
+     * Code run by a migration on the migrator's connection
+     */
+    @FunctionalInterface
+    public interface MigrationStep {
+        void apply(Connection conn) throws SQLException;
+    }
+
+    /**
+     * Tells whether a schema change is already in place
+     */
+    @FunctionalInterface
+    public interface SchemaCheck {
+        boolean holds(Connection conn) throws SQLException;
+    }
+
+    /**
+     * A single schema change, applied once and recorded in schema_version
+     */
+    public record Migration(int version, String description, MigrationStep step) {
+
+        /**
+         * Migration consisting of a single DDL or DML statement
+         */
+        static Migration sql(int version, String description, String sql) {
+            return new Migration(version, description, conn -> {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute(sql);
+                }
+            });
+        }
+
+        /**
+         * Migration creating a single index, which databases set up before versioning
+         * may already have; only here is a duplicate index name error treated as done
+         */
+        static Migration index(int version, String description, String createIndexSql) {
+            return new Migration(version, description, conn -> {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute(createIndexSql);
+                } catch (SQLException e) {
+                    if (e.getErrorCode() != ER_DUP_KEYNAME) {
+                        throw e;
+                    }
+                }
+            });
+        }
+
+        /**
+         * Migration consisting of a single DDL statement, skipped if its change is already there
+         * MySQL commits DDL on its own before the version is recorded, so a crash in between
+         * must not make the next start fail on a column or index that now exists or is gone
+         */
+        static Migration ddl(int version, String description, SchemaCheck applied, String ddlSql) {
+            return new Migration(version, description, conn -> {
+                if (applied.holds(conn)) {
+                    return;
+                }
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute(ddlSql);
+                }
+            });
+        }
+    }
+
+    /**
+     * Ordered migrations; append new ones, never edit or reorder applied ones
+     */
+    private static final List<Migration> MIGRATIONS = List.of(
+            Migration.sql(1, "create students1 table", """
+                CREATE TABLE IF NOT EXISTS students1 (
+                    id INT AUTO_INCREMENT PRIMARY KEY,
+                    name VARCHAR(100) NOT NULL,
+                    email VARCHAR(150) NOT NULL UNIQUE,
+                    age INT NOT NULL,
+                    course VARCHAR(100) NOT NULL
+                )
+            """),
+            // Indexes are built in place without blocking concurrent reads and writes
+            Migration.index(2, "index students1.name",
+                    "CREATE INDEX idx_students1_name ON students1 (name) ALGORITHM=INPLACE LOCK=NONE"),
+            Migration.index(3, "index students1.course",
+                    "CREATE INDEX idx_students1_course ON students1 (course) ALGORITHM=INPLACE LOCK=NONE"),
+            // Courses move to a dictionary table referenced by a 2-byte key (expand, backfill, contract)
+            Migration.sql(4, "create courses table", """
+                CREATE TABLE IF NOT EXISTS courses (
+                    id SMALLINT UNSIGNED AUTO_INCREMENT PRIMARY KEY,
+                    name VARCHAR(100) NOT NULL UNIQUE
+                )
+            """),
+            Migration.ddl(5, "add students1.course_id", columnExists("students1", "course_id"),
+                    "ALTER TABLE students1 ADD COLUMN course_id SMALLINT UNSIGNED NULL, ALGORITHM=INPLACE, LOCK=NONE"),
+            new Migration(6, "backfill students1.course_id", SchemaMigrator::backfillCourseIds),
+            new Migration(7, "require students1.course_id", SchemaMigrator::requireCourseIds),
+            Migration.ddl(8, "drop students1.course", conn -> !columnExists("students1", "course").holds(conn),
+                    "ALTER TABLE students1 DROP COLUMN course, ALGORITHM=INPLACE, LOCK=NONE"),
+            // Serves course filters with an age range or age ordering; its course_id prefix
+            // replaces the single-column index, including for the foreign key
+            Migration.ddl(9, "index students1 (course_id, age)", indexExists("students1", "idx_students1_course_age"), """
+                ALTER TABLE students1
+                    ADD INDEX idx_students1_course_age (course_id, age),
+                    DROP INDEX idx_students1_course_id,
+                    ALGORITHM=INPLACE, LOCK=NONE
+            """)
+    );
+
+    private final String databaseName;
+    private final String databaseUrl;
+    private final String serverUrl;
+    private final String user;
+    private final String password;
+
+    public SchemaMigrator(String databaseName, String databaseUrl, String serverUrl,
+                          String user, String password) {
+        this.databaseName = databaseName;
+        this.databaseUrl = databaseUrl;
+        this.serverUrl = serverUrl;
+        this.user = user;
+        this.password = password;
+    }
+
+    /**
+     * Get the version the schema is brought up to
+     */
+    public static int latestVersion() {
+        return MIGRATIONS.get(MIGRATIONS.size() - 1).version();
+    }
+
+    /**
+     * Bring the schema up to date
+     * @throws SQLException if the database cannot be reached or a migration fails
+     */
+    public void migrate() throws SQLException {
+        try (Connection conn = DriverManager.getConnection(databaseUrl, user, password)) {
+            // Hot path: one query on one connection when nothing needs doing
+            if (currentVersion(conn) >= latestVersion()) {
+                return;
+            }
+            applyPending(conn);
+        } catch (SQLException e) {
+            if (e.getErrorCode() != ER_BAD_DB_ERROR) {
+                throw e;
+            }
+            createDatabase();
+            try (Connection conn = DriverManager.getConnection(databaseUrl, user, password)) {
+                applyPending(conn);
+            }
+        }
+    }
+
+    /**
+     * Read the applied schema version
+     * @return Highest applied version, or 0 if no migrations have run
+     */
+    private int currentVersion(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT MAX(version) FROM schema_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        } catch (SQLException e) {
+            if (e.getErrorCode() == ER_NO_SUCH_TABLE) {
+                return 0;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Apply every migration newer than the recorded version, holding the migration lock
+     */
+    private void applyPending(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS schema_version (
+                    version INT PRIMARY KEY,
+                    description VARCHAR(200) NOT NULL,
+                    applied_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+                )
+            """);
+        }
+
+        acquireLock(conn);
+        try {
+            // Re-read under the lock in case another instance migrated first
+            int current = currentVersion(conn);
+            for (Migration migration : MIGRATIONS) {
+                if (migration.version() > current) {
+                    apply(conn, migration);
+                }
+            }
+        } finally {
+            releaseLock(conn);
+        }
+    }
+
+    /**
+     * Run one migration and record it
+     */
+    private void apply(Connection conn, Migration migration) throws SQLException {
+        System.out.println("Applying schema migration " + migration.version()
+                + ": " + migration.description());
+
+        migration.step().apply(conn);
+
+        String sql = "INSERT INTO schema_version(version, description) VALUES(?, ?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, migration.version());
+            pstmt.setString(2, migration.description());
+            pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Fill the courses table and point every student at its course, in short batches by id range
+     */
+    private static void backfillCourseIds(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("INSERT IGNORE INTO courses(name) SELECT DISTINCT course FROM students1");
+        }
+
+        int maxId;
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(id), 0) FROM students1")) {
+            rs.next();
+            maxId = rs.getInt(1);
+        }
+
+        String sql = """
+            UPDATE students1 s JOIN courses c ON c.name = s.course
+            SET s.course_id = c.id
+            WHERE s.id BETWEEN ? AND ? AND s.course_id IS NULL
+        """;
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (int from = 1; from <= maxId; from += BACKFILL_BATCH_SIZE) {
+                pstmt.setInt(1, from);
+                pstmt.setInt(2, from + BACKFILL_BATCH_SIZE - 1);
+                pstmt.executeUpdate();
+            }
+        }
+    }
+
+    /**
+     * Catch up rows written during the backfill, then make course_id mandatory, indexed
+     * and a foreign key to courses
+     */
+    private static void requireCourseIds(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("INSERT IGNORE INTO courses(name) SELECT DISTINCT course FROM students1 WHERE course_id IS NULL");
+            stmt.execute("""
+                UPDATE students1 s JOIN courses c ON c.name = s.course
+                SET s.course_id = c.id
+                WHERE s.course_id IS NULL
+            """);
+            // The ALTER below is one atomic DDL; its index means it already ran
+            if (indexExists("students1", "idx_students1_course_id").holds(conn)) {
+                return;
+            }
+            // With checks off the foreign key is added in place instead of by a table copy;
+            // the backfill has just guaranteed every course_id exists
+            stmt.execute("SET foreign_key_checks = 0");
+            try {
+                stmt.execute("""
+                    ALTER TABLE students1
+                        MODIFY course_id SMALLINT UNSIGNED NOT NULL,
+                        ADD INDEX idx_students1_course_id (course_id),
+                        ADD CONSTRAINT fk_students1_course FOREIGN KEY (course_id) REFERENCES courses (id),
+                        ALGORITHM=INPLACE, LOCK=NONE
+                """);
+            } finally {
+                stmt.execute("SET foreign_key_checks = 1");
+            }
+        }
+    }
+
+    /**
+     * Check for a column in the current database
+     */
+    private static SchemaCheck columnExists(String table, String column) {
+        return conn -> exists(conn, """
+                SELECT 1 FROM information_schema.COLUMNS
+                WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND COLUMN_NAME = ?
+            """, table, column);
+    }
+
+    /**
+     * Check for an index in the current database
+     */
+    private static SchemaCheck indexExists(String table, String index) {
+        return conn -> exists(conn, """
+                SELECT 1 FROM information_schema.STATISTICS
+                WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND INDEX_NAME = ?
+            """, table, index);
+    }
+
+    private static boolean exists(Connection conn, String sql, String table, String name) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, table);
+            pstmt.setString(2, name);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    /**
+     * Create the database itself; only needed on first launch
+     */
+    private void createDatabase() throws SQLException {
+        try (Connection conn = DriverManager.getConnection(serverUrl, user, password);
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE DATABASE IF NOT EXISTS " + databaseName);
+        }
+    }
+
+    private void acquireLock(Connection conn) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+            pstmt.setString(1, MIGRATION_LOCK);
+            pstmt.setInt(2, LOCK_TIMEOUT_SECONDS);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next() || rs.getInt(1) != 1) {
+                    throw new SQLException("Timed out waiting for schema migration lock");
+                }
+            }
+        }
+    }
+
+    private void releaseLock(Connection conn) {
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            pstmt.setString(1, MIGRATION_LOCK);
+            pstmt.executeQuery().close();
+        } catch (SQLException e) {
+            // The lock is released anyway when the connection closes
+            System.err.println("Error releasing migration lock: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,224 @@
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded cache of name search results keyed by the term sent to the database
+ * A longer term is answered by filtering the cached result of a shorter term it contains
+ *
+ * Invalidation only sees this process's writes, so every entry also has a maximum age;
+ * a result filtered from a cached one is as old as the result it came from
+ *
+ * Filtering in Java only reproduces MySQL's accent-insensitive collation for plain
+ * ASCII text, so terms that are not plain are never cached, a cached result holding
+ * a name that is not plain is never filtered, and writing such a name clears the cache
+ */
+public class SearchResultCache {
+    private final int maxEntries;
+    private final long maxAgeNanos;
+    private final LinkedHashMap<String, Entry> entries;
+
+    // Bumped on every invalidation so a search that raced with a write is not cached
+    private long generation;
+
+    private long hits;
+    private long prefixHits;
+    private long misses;
+    private long bypassed;
+    private long expired;
+
+    /**
+     * Students returned for a term and when the database returned them
+     */
+    private static final class Entry {
+        final List<Student> students;
+        final long storedAt;
+
+        Entry(List<Student> students, long storedAt) {
+            this.students = students;
+            this.storedAt = storedAt;
+        }
+    }
+
+    /**
+     * @param maxEntries Number of terms kept before the least recently used is evicted
+     * @param maxAgeMillis How long a database result may be served, including results filtered from it
+     */
+    public SearchResultCache(int maxEntries, long maxAgeMillis) {
+        this.maxEntries = maxEntries;
+        this.maxAgeNanos = TimeUnit.MILLISECONDS.toNanos(maxAgeMillis);
+        // Access order so the least recently used term is evicted first
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > SearchResultCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Whether Java can match this text exactly as MySQL's LIKE would
+     * True for printable ASCII, where the collation only folds case
+     */
+    public static boolean isPlain(String text) {
+        if (text == null) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x20 || c > 0x7e) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Cache key for a plain term: the term exactly as queried, with case folded as the collation does
+     */
+    private static String key(String term) {
+        return term.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Look up results for a term, reusing the longest cached term it contains
+     * @param term Search term, exactly as it will be sent to the database
+     * @return Copy of the matching students, or null if nothing cached can answer it
+     */
+    public synchronized List<Student> get(String term) {
+        if (!isPlain(term)) {
+            bypassed++;
+            return null;
+        }
+        String key = key(term);
+        long now = System.nanoTime();
+        removeExpired(now);
+
+        Entry exact = entries.get(key);
+        if (exact != null) {
+            hits++;
+            return copyOf(exact.students);
+        }
+
+        // Every name containing the new term also contains any shorter term inside it,
+        // so the cached result for that shorter term is a superset we can filter
+        String bestKey = null;
+        for (String cachedKey : entries.keySet()) {
+            if (key.contains(cachedKey) && (bestKey == null || cachedKey.length() > bestKey.length())) {
+                bestKey = cachedKey;
+            }
+        }
+
+        if (bestKey == null) {
+            misses++;
+            return null;
+        }
+
+        Entry best = entries.get(bestKey);
+        List<Student> filtered = new ArrayList<>();
+        for (Student student : best.students) {
+            if (!isPlain(student.getName())) {
+                // e.g. "José" matches "jose" in MySQL but not in Java
+                misses++;
+                return null;
+            }
+            if (key(student.getName()).contains(key)) {
+                filtered.add(student);
+            }
+        }
+        entries.put(key, new Entry(filtered, best.storedAt));
+        prefixHits++;
+        return copyOf(filtered);
+    }
+
+    /**
+     * Get the current invalidation generation, read before querying the database
+     */
+    public synchronized long generation() {
+        return generation;
+    }
+
+    /**
+     * Store the database result for a term
+     * @param term Search term, exactly as it was sent to the database
+     * @param students Students returned by the database, in display order
+     * @param queriedAt Generation read before the query was issued
+     */
+    public synchronized void put(String term, List<Student> students, long queriedAt) {
+        if (queriedAt != generation || !isPlain(term)) {
+            return;
+        }
+        entries.put(key(term), new Entry(copyOf(students), System.nanoTime()));
+    }
+
+    /**
+     * Drop every cached term that a student with this name would match
+     * A name that is not plain ASCII may match terms Java cannot tell, so everything is dropped
+     * @param name Name of an inserted or updated student
+     */
+    public synchronized void invalidateName(String name) {
+        if (name == null) {
+            return;
+        }
+        generation++;
+        if (!isPlain(name)) {
+            entries.clear();
+            return;
+        }
+        String lowerName = key(name);
+        entries.keySet().removeIf(key -> lowerName.contains(key));
+    }
+
+    /**
+     * Drop every cached result that contains the given student
+     * @param id ID of an updated or deleted student
+     */
+    public synchronized void invalidateId(int id) {
+        generation++;
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            for (Student student : it.next().students) {
+                if (student.getId() == id) {
+                    it.remove();
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Get a one-line summary of cache usage
+     */
+    public synchronized String getStats() {
+        return String.format("entries=%d/%d hits=%d prefixHits=%d misses=%d bypassed=%d expired=%d",
+                entries.size(), maxEntries, hits, prefixHits, misses, bypassed, expired);
+    }
+
+    /**
+     * Drop entries older than the maximum age, so neither exact nor filtered lookups use them
+     */
+    private void removeExpired(long now) {
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            if (now - it.next().storedAt >= maxAgeNanos) {
+                it.remove();
+                expired++;
+            }
+        }
+    }
+
+    /**
+     * Callers may modify the students they get back, so never hand out cached instances
+     */
+    private static List<Student> copyOf(List<Student> students) {
+        List<Student> copy = new ArrayList<>(students.size());
+        for (Student s : students) {
+            copy.add(new Student(s.getId(), s.getName(), s.getEmail(), s.getAge(), s.getCourse()));
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,64 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Size-rotated log file for slow SQL statements
+ * When the file passes its size limit it becomes name.1, name.1 becomes name.2, and so on
+ * Writes are synchronous; SqlTracer calls it from its background thread only
+ */
+public class SlowQueryLog {
+    private final Path path;
+    private final long maxBytes;
+    private final int maxFiles;
+
+    /**
+     * @param path Log file to write
+     * @param maxBytes Size at which the file is rotated
+     * @param maxFiles Number of rotated files kept besides the live one
+     */
+    public SlowQueryLog(String path, long maxBytes, int maxFiles) {
+        this.path = Paths.get(path);
+        this.maxBytes = maxBytes;
+        this.maxFiles = maxFiles;
+    }
+
+    /**
+     * Append an entry, rotating first if the file is full
+     * Write failures are reported and otherwise ignored; logging must not break queries
+     */
+    public synchronized void write(String entry) {
+        try {
+            if (Files.exists(path) && Files.size(path) >= maxBytes) {
+                rotate();
+            }
+            try (Writer out = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                out.write(entry);
+                out.write(System.lineSeparator());
+            }
+        } catch (IOException e) {
+            System.err.println("Error writing slow query log: " + e.getMessage());
+        }
+    }
+
+    private void rotate() throws IOException {
+        Files.deleteIfExists(rotated(maxFiles));
+        for (int i = maxFiles - 1; i >= 1; i--) {
+            Path from = rotated(i);
+            if (Files.exists(from)) {
+                Files.move(from, rotated(i + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Files.move(path, rotated(1), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private Path rotated(int index) {
+        return path.resolveSibling(path.getFileName() + "." + index);
+    }
+}
@@ -0,0 +1,324 @@
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.*;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Traces statements prepared by the DAO
+ * Records statement text, parameter types, rows, time to first and last row, total time
+ * until close and the SQLState of a failure; statements over the threshold go to the slow query log and
+ * a sample of slow SELECTs also get their EXPLAIN plan captured. Log writes and
+ * EXPLAINs both happen in the background, so a statement never waits on file I/O
+ */
+public class SqlTracer {
+
+    /**
+     * Opens a separate connection for EXPLAIN, so the traced connection is never reused
+     */
+    @FunctionalInterface
+    public interface ConnectionFactory {
+        Connection open() throws SQLException;
+    }
+
+    private final long thresholdNanos;
+    private final double explainSampleRate;
+    private final SlowQueryLog log;
+    private final ConnectionFactory connectionFactory;
+    // Numbers slow entries so a plan written later can be matched to its statement
+    private final AtomicLong slowStatements = new AtomicLong();
+
+    // One background thread writes entries and runs EXPLAINs in order. When it falls behind,
+    // new entries are dropped and counted, and EXPLAINs are dropped once a few are waiting
+    private static final int MAX_QUEUED_TASKS = 1024;
+    private static final int MAX_QUEUED_EXPLAINS = 16;
+    private final ExecutorService background = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(MAX_QUEUED_TASKS), r -> {
+                Thread t = new Thread(r, "sql-trace");
+                t.setDaemon(true);
+                return t;
+            });
+    private final AtomicInteger queuedExplains = new AtomicInteger();
+    private final AtomicLong droppedEntries = new AtomicLong();
+
+    /**
+     * @param thresholdMillis Statements taking at least this long are logged
+     * @param explainSampleRate Fraction of slow SELECTs to EXPLAIN, 0 to 1
+     * @param log Destination for slow statements
+     * @param connectionFactory Source of connections for EXPLAIN
+     */
+    public SqlTracer(long thresholdMillis, double explainSampleRate, SlowQueryLog log,
+                     ConnectionFactory connectionFactory) {
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        this.explainSampleRate = explainSampleRate;
+        this.log = log;
+        this.connectionFactory = connectionFactory;
+    }
+
+    /**
+     * Wrap a prepared statement so its execution is traced
+     */
+    public PreparedStatement trace(PreparedStatement pstmt, String sql) {
+        return (PreparedStatement) Proxy.newProxyInstance(
+                SqlTracer.class.getClassLoader(),
+                new Class<?>[] {PreparedStatement.class},
+                new StatementHandler(pstmt, sql));
+    }
+
+    /**
+     * Trace state for one statement; used by one thread at a time, like the statement itself
+     */
+    private final class StatementHandler implements InvocationHandler {
+        private final PreparedStatement target;
+        private final String sql;
+        private final List<Object> params = new ArrayList<>();
+
+        private long startedAt;
+        private long firstRowAt;
+        private long lastRowAt;
+        private long rows;
+        private boolean running;
+        // SQLState (or exception type) of a failed execution or row fetch, e.g. a query timeout
+        private String error;
+
+        StatementHandler(PreparedStatement target, String sql) {
+            this.target = target;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+
+            if (name.startsWith("set") && args != null && args.length == 2 && args[0] instanceof Integer) {
+                recordParam((Integer) args[0], args[1]);
+            } else if (name.equals("executeQuery") && args == null) {
+                begin();
+                ResultSet rs = (ResultSet) execute(method);
+                return Proxy.newProxyInstance(SqlTracer.class.getClassLoader(),
+                        new Class<?>[] {ResultSet.class}, new ResultSetHandler(rs, this));
+            } else if (name.equals("executeUpdate") && args == null) {
+                begin();
+                int updated = (Integer) execute(method);
+                rows = updated;
+                firstRowAt = lastRowAt = System.nanoTime();
+                finish();
+                return updated;
+            } else if (name.equals("close")) {
+                finish();
+            }
+            return call(method, args);
+        }
+
+        private void begin() {
+            startedAt = System.nanoTime();
+            firstRowAt = lastRowAt = 0;
+            rows = 0;
+            error = null;
+            running = true;
+        }
+
+        /**
+         * Run an execute method; a failure finishes the trace with its error recorded
+         */
+        private Object execute(Method method) throws Throwable {
+            try {
+                return call(method, null);
+            } catch (Throwable t) {
+                onError(t);
+                finish();
+                throw t;
+            }
+        }
+
+        private Object call(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        private void recordParam(int index, Object value) {
+            while (params.size() < index) {
+                params.add(null);
+            }
+            params.set(index - 1, value);
+        }
+
+        void onRow(boolean hasRow) {
+            long now = System.nanoTime();
+            if (hasRow) {
+                rows++;
+                if (firstRowAt == 0) {
+                    firstRowAt = now;
+                }
+            } else if (lastRowAt == 0) {
+                lastRowAt = now;
+            }
+        }
+
+        void onError(Throwable t) {
+            if (error == null) {
+                error = t instanceof SQLException e && e.getSQLState() != null
+                        ? e.getSQLState()
+                        : t.getClass().getSimpleName();
+            }
+        }
+
+        /**
+         * Called when the result set or statement closes; only slow statements cost more than a clock read
+         */
+        void finish() {
+            if (!running) {
+                return;
+            }
+            running = false;
+            // Total time runs until close, so it includes time spent between row fetches
+            long elapsed = System.nanoTime() - startedAt;
+            if (elapsed < thresholdNanos) {
+                return;
+            }
+
+            long number = slowStatements.incrementAndGet();
+            String entry = String.format("#%d %s duration=%.1fms firstRow=%s lastRow=%s rows=%d error=%s params=%s sql=%s",
+                    number, Instant.now(), elapsed / 1e6, sinceStart(firstRowAt), sinceStart(lastRowAt),
+                    rows, error == null ? "-" : error, paramShape(), sql.replaceAll("\\s+", " ").trim());
+            submitEntry(entry);
+
+            if (sql.trim().regionMatches(true, 0, "SELECT", 0, 6)
+                    && ThreadLocalRandom.current().nextDouble() < explainSampleRate) {
+                submitExplain(number, sql, new ArrayList<>(params));
+            }
+        }
+
+        /**
+         * Time from execution to a row event, or "-" if it never happened
+         */
+        private String sinceStart(long at) {
+            return at == 0 ? "-" : String.format("%.1fms", (at - startedAt) / 1e6);
+        }
+
+        /**
+         * Parameter types only, e.g. (String, int); values are never logged
+         */
+        private String paramShape() {
+            StringBuilder sb = new StringBuilder("(");
+            for (int i = 0; i < params.size(); i++) {
+                if (i > 0) {
+                    sb.append(", ");
+                }
+                Object value = params.get(i);
+                sb.append(value == null ? "null" : value instanceof Integer ? "int" : value.getClass().getSimpleName());
+            }
+            return sb.append(')').toString();
+        }
+    }
+
+    /**
+     * Times row retrieval for the statement that produced the result set
+     */
+    private static final class ResultSetHandler implements InvocationHandler {
+        private final ResultSet target;
+        private final StatementHandler statement;
+
+        ResultSetHandler(ResultSet target, StatementHandler statement) {
+            this.target = target;
+            this.statement = statement;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                if (method.getName().equals("next")) {
+                    statement.onError(e.getCause());
+                }
+                throw e.getCause();
+            }
+            String name = method.getName();
+            if (name.equals("next")) {
+                statement.onRow((Boolean) result);
+            } else if (name.equals("close")) {
+                statement.finish();
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Queue a log entry for the background thread, noting any entries dropped before it
+     */
+    private void submitEntry(String entry) {
+        try {
+            background.execute(() -> {
+                long dropped = droppedEntries.getAndSet(0);
+                if (dropped > 0) {
+                    log.write("# " + dropped + " slow query entries dropped, logging fell behind");
+                }
+                log.write(entry);
+            });
+        } catch (RejectedExecutionException e) {
+            droppedEntries.incrementAndGet();
+        }
+    }
+
+    /**
+     * Queue an EXPLAIN unless enough are already waiting
+     */
+    private void submitExplain(long number, String sql, List<Object> values) {
+        if (queuedExplains.incrementAndGet() > MAX_QUEUED_EXPLAINS) {
+            queuedExplains.decrementAndGet();
+            return;
+        }
+        try {
+            background.execute(() -> {
+                try {
+                    explain(number, sql, values);
+                } finally {
+                    queuedExplains.decrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            queuedExplains.decrementAndGet();
+        }
+    }
+
+    /**
+     * Run EXPLAIN for a slow statement and append the plan to the log; runs on the background thread
+     */
+    private void explain(long number, String sql, List<Object> values) {
+        StringBuilder plan = new StringBuilder("#").append(number).append(" EXPLAIN");
+        try (Connection conn = connectionFactory.open();
+             PreparedStatement pstmt = conn.prepareStatement("EXPLAIN " + sql)) {
+            for (int i = 0; i < values.size(); i++) {
+                pstmt.setObject(i + 1, values.get(i));
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                ResultSetMetaData meta = rs.getMetaData();
+                while (rs.next()) {
+                    plan.append(System.lineSeparator()).append("   ");
+                    for (int c = 1; c <= meta.getColumnCount(); c++) {
+                        plan.append(' ').append(meta.getColumnLabel(c)).append('=').append(rs.getString(c));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            plan.append(System.lineSeparator()).append("    failed: ").append(e.getMessage());
+        }
+        log.write(plan.toString());
+    }
+}
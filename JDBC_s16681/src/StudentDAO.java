@@ -1,286 +1,800 @@
+import java.net.SocketTimeoutException;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Data Access Object for Student operations using MySQL Database
  * Handles all database interactions for Student entity
  */
-public class StudentDAO {
+public class StudentDAO implements StudentRepository {
     // MySQL connection details - modify these according to your setup
-    private static final String DB_URL = "jdbc:mysql://localhost:3306/student_db";
+    private static final String DB_NAME = "student_db";
+    private static final String SERVER_URL = "jdbc:mysql://localhost:3306/";
     private static final String DB_USER = "root";  // Change to your MySQL username
     private static final String DB_PASSWORD = "root";  // Change to your MySQL password
 
+    // Give up connecting after 3s; the socket timeout backs up the query timeout
+    private static final String CONNECTION_OPTIONS = "?connectTimeout=3000&socketTimeout=15000";
+    private static final String DB_URL = SERVER_URL + DB_NAME + CONNECTION_OPTIONS;
+
+    // Per-statement and per-connect limits, and the total time one operation may spend
+    // including retries; every attempt is clamped to what is left of the total
+    private static final int QUERY_TIMEOUT_SECONDS = 5;
+    private static final long CONNECT_TIMEOUT_MILLIS = 3_000;
+    private static final long OPERATION_DEADLINE_MILLIS = 10_000;
+    // The background email filter load streams the whole table, so it gets longer
+    private static final long FILTER_LOAD_DEADLINE_MILLIS = 5 * 60_000;
+
+    // Deadline of the attempt running on this thread, read by prepare()
+    private final ThreadLocal<Long> attemptDeadline = new ThreadLocal<>();
+
+    // Transient failures are retried with jittered exponential backoff
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long BASE_BACKOFF_MILLIS = 50;
+    private static final long MAX_BACKOFF_MILLIS = 1_000;
+
+    // Fail fast for 5s after 5 consecutive database failures
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker(5, 5_000);
+
+    // Statements slower than the threshold are written to a rotating slow query log,
+    // and a sample of slow SELECTs get their EXPLAIN plan captured
+    private static final long SLOW_QUERY_MILLIS = Long.getLong("student.slowQueryMillis", 200);
+    private static final double EXPLAIN_SAMPLE_RATE = 0.1;
+    private static final String SLOW_QUERY_LOG = System.getProperty("student.slowQueryLog", "slow-query.log");
+    private static final long SLOW_QUERY_LOG_MAX_BYTES = 10L * 1024 * 1024;
+    private static final int SLOW_QUERY_LOG_FILES = 5;
+    private final SqlTracer sqlTracer = new SqlTracer(SLOW_QUERY_MILLIS, EXPLAIN_SAMPLE_RATE,
+            new SlowQueryLog(SLOW_QUERY_LOG, SLOW_QUERY_LOG_MAX_BYTES, SLOW_QUERY_LOG_FILES),
+            () -> DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD));
+
+    // Courses are stored as ids into the courses table and resolved in process
+    private static final String STUDENT_COLUMNS = "id, name, email, age, course_id";
+    private final CourseDictionary courseDictionary = new CourseDictionary(this::prepare);
+
+    // Compiled SQL per query shape, so repeated shapes skip building the statement text
+    private final ConcurrentHashMap<String, String> querySqlByShape = new ConcurrentHashMap<>();
+
+    // Recent name searches, reused while an operator refines a query. Only this process's
+    // writes invalidate them, so rows added, renamed or deleted by another process can be
+    // missing from or still present in cached results for up to the maximum age
+    private static final int SEARCH_CACHE_SIZE = 64;
+    private static final long SEARCH_CACHE_MAX_AGE_MILLIS = Long.getLong("student.searchCacheMaxAgeMillis", 10_000);
+    private final SearchResultCache searchCache = new SearchResultCache(SEARCH_CACHE_SIZE, SEARCH_CACHE_MAX_AGE_MILLIS);
+
+    // Email existence filter: sized for twice the current row count at 1% false positives.
+    // Rebuilt from the table on every tick, to forget deleted emails and to pick up rows
+    // inserted by other processes; its negatives are only as fresh as the last rebuild
+    private static final double EMAIL_FILTER_FPP = 0.01;
+    private static final long EMAIL_FILTER_MIN_SIZE = 1_024;
+    private static final long EMAIL_FILTER_REBUILD_SECONDS = Long.getLong("student.emailFilterRebuildSeconds", 60);
+    private volatile EmailBloomFilter emailFilter;
+    private volatile EmailBloomFilter emailFilterRebuilding;
+    private final AtomicLong emailLookupsSkipped = new AtomicLong();
+    private final AtomicLong emailFalsePositives = new AtomicLong();
+    private ScheduledExecutorService filterRebuilder;
+
+    /**
+     * Work done on a database connection
+     */
+    @FunctionalInterface
+    private interface SqlWork<T> {
+        T run(Connection conn) throws SQLException;
+    }
+
     /**
-     * Initialize database and create students table if it doesn't exist
+     * Initialize database and bring the schema up to date
+     * When the schema is already current this costs a single version query
      */
+    @Override
     public void initializeDatabase() {
-        // First, create database if it doesn't exist
-        createDatabaseIfNotExists();
-
-        String createTableSQL = """
-            CREATE TABLE IF NOT EXISTS students1 (
-                id INT AUTO_INCREMENT PRIMARY KEY,
-                name VARCHAR(100) NOT NULL,
-                email VARCHAR(150) NOT NULL UNIQUE,
-                age INT NOT NULL,
-                course VARCHAR(100) NOT NULL
-            )
-        """;
-
-        try (Connection conn = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
-             Statement stmt = conn.createStatement()) {
-            stmt.execute(createTableSQL);
+        SchemaMigrator migrator = new SchemaMigrator(DB_NAME, DB_URL, SERVER_URL + CONNECTION_OPTIONS,
+                DB_USER, DB_PASSWORD);
+
+        try {
+            migrator.migrate();
             System.out.println("Database initialized successfully!");
         } catch (SQLException e) {
             System.err.println("Error initializing database: " + e.getMessage());
             System.err.println("Please make sure MySQL is running and credentials are correct.");
+            return;
         }
+
+        execute("loading courses", true, conn -> {
+            courseDictionary.load(conn);
+            return true;
+        });
+        scheduleEmailFilterRebuilds();
     }
 
     /**
-     * Create database if it doesn't exist
+     * Add a new student to the database
+     * @param student Student object to add
+     * @return APPLIED, REJECTED (e.g. duplicate email), or FAILED if the database could not answer
      */
-    private void createDatabaseIfNotExists() {
-        String serverURL = "jdbc:mysql://localhost:3306/";
-        String createDatabaseSQL = "CREATE DATABASE IF NOT EXISTS student_db";
+    @Override
+    public WriteResult addStudent(Student student) {
+        String sql = "INSERT INTO students1(name, email, age, course_id) VALUES(?, ?, ?, ?)";
+
+        rememberEmail(student.getEmail());
+
+        // Not idempotent: only retried when the connection could not be opened
+        WriteResult result = write("adding student", false, conn -> {
+            try (PreparedStatement pstmt = prepare(conn, sql, Statement.RETURN_GENERATED_KEYS)) {
+                pstmt.setString(1, student.getName());
+                pstmt.setString(2, student.getEmail());
+                pstmt.setInt(3, student.getAge());
+                pstmt.setInt(4, courseDictionary.idFor(conn, student.getCourse()));
+                int rows = pstmt.executeUpdate();
+                try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                    if (keys.next()) {
+                        student.setId(keys.getInt(1));
+                    }
+                }
+                return rows;
+            }
+        });
 
-        try (Connection conn = DriverManager.getConnection(serverURL, DB_USER, DB_PASSWORD);
-             Statement stmt = conn.createStatement()) {
-            stmt.execute(createDatabaseSQL);
-        } catch (SQLException e) {
-            System.err.println("Error creating database: " + e.getMessage());
+        if (result.isApplied()) {
+            rememberEmail(student.getEmail());
+            searchCache.invalidateName(student.getName());
         }
+        return result;
     }
 
     /**
-     * Add a new student to the database
-     * @param student Student object to add
-     * @return true if student was added successfully, false otherwise
+     * Retrieve all students from the database
+     * @return FOUND with all students (possibly none), or FAILED if the database could not answer
      */
-    public boolean addStudent(Student student) {
-        String sql = "INSERT INTO students1(name, email, age, course) VALUES(?, ?, ?, ?)";
+    @Override
+    public QueryResult<List<Student>> getAllStudents() {
+        String sql = "SELECT " + STUDENT_COLUMNS + " FROM students1 ORDER BY id";
+
+        return execute("retrieving students", true, conn -> {
+            try (PreparedStatement pstmt = prepare(conn, sql);
+                 ResultSet rs = pstmt.executeQuery()) {
+                return readStudents(conn, rs);
+            }
+        });
+    }
 
-        try (Connection conn = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+    /**
+     * Find a student by their ID, reporting database failures separately from a missing student
+     * @param id Student ID to search for
+     * @return FOUND with the student, NOT_FOUND, or FAILED if the database could not answer
+     */
+    @Override
+    public QueryResult<Student> findStudentById(int id) {
+        String sql = "SELECT " + STUDENT_COLUMNS + " FROM students1 WHERE id = ?";
+
+        return execute("retrieving student", true, conn -> {
+            try (PreparedStatement pstmt = prepare(conn, sql)) {
+                pstmt.setInt(1, id);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    return rs.next() ? readStudent(conn, rs) : null;
+                }
+            }
+        });
+    }
 
-            pstmt.setString(1, student.getName());
-            pstmt.setString(2, student.getEmail());
-            pstmt.setInt(3, student.getAge());
-            pstmt.setString(4, student.getCourse());
+    /**
+     * Find a student by email, reporting database failures separately from a missing student
+     * NOT_FOUND may come from the email filter without a query, so an email inserted by another
+     * process can be reported missing until the next filter rebuild
+     * @param email Email to search for
+     * @return FOUND with the student, NOT_FOUND, or FAILED if the database could not answer
+     */
+    @Override
+    public QueryResult<Student> findStudentByEmail(String email) {
+        String sql = "SELECT " + STUDENT_COLUMNS + " FROM students1 WHERE email = ?";
+
+        // Definite negative from the filter: no such email, no round trip needed.
+        // Emails that are not plain ASCII always go to the database (see EmailBloomFilter)
+        EmailBloomFilter filter = emailFilter;
+        boolean filtered = filter != null && email != null && filter.canRuleOut(email);
+        if (filtered && !filter.mightContain(email)) {
+            emailLookupsSkipped.incrementAndGet();
+            return QueryResult.notFound();
+        }
 
-            int rowsAffected = pstmt.executeUpdate();
-            return rowsAffected > 0;
+        QueryResult<Student> result = execute("retrieving student by email", true, conn -> {
+            try (PreparedStatement pstmt = prepare(conn, sql)) {
+                pstmt.setString(1, email);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    return rs.next() ? readStudent(conn, rs) : null;
+                }
+            }
+        });
 
-        } catch (SQLException e) {
-            System.err.println("Error adding student: " + e.getMessage());
-            return false;
+        if (filtered && result.isNotFound()) {
+            emailFalsePositives.incrementAndGet();
         }
+        return result;
     }
 
     /**
-     * Retrieve all students from the database
-     * @return List of all students
+     * Update an existing student's information
+     * @param student Student object with updated information
+     * @return APPLIED, NOT_FOUND, REJECTED (e.g. duplicate email), or FAILED
      */
-    public List<Student> getAllStudents() {
-        List<Student> students = new ArrayList<>();
-        String sql = "SELECT * FROM students1 ORDER BY id";
-
-        try (Connection conn = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-
-            while (rs.next()) {
-                Student student = new Student(
-                        rs.getInt("id"),
-                        rs.getString("name"),
-                        rs.getString("email"),
-                        rs.getInt("age"),
-                        rs.getString("course")
-                );
-                students.add(student);
+    @Override
+    public WriteResult updateStudent(Student student) {
+        String sql = "UPDATE students1 SET name = ?, email = ?, age = ?, course_id = ? WHERE id = ?";
+
+        rememberEmail(student.getEmail());
+
+        WriteResult result = write("updating student", true, conn -> {
+            try (PreparedStatement pstmt = prepare(conn, sql)) {
+                pstmt.setString(1, student.getName());
+                pstmt.setString(2, student.getEmail());
+                pstmt.setInt(3, student.getAge());
+                pstmt.setInt(4, courseDictionary.idFor(conn, student.getCourse()));
+                pstmt.setInt(5, student.getId());
+                return pstmt.executeUpdate();
             }
-
-        } catch (SQLException e) {
-            System.err.println("Error retrieving students: " + e.getMessage());
+        });
+
+        if (result.isApplied()) {
+            // The old email stays in the filter until the next rebuild
+            rememberEmail(student.getEmail());
+            // Drop results holding the old name as well as terms the new name now matches
+            searchCache.invalidateId(student.getId());
+            searchCache.invalidateName(student.getName());
         }
-
-        return students;
+        return result;
     }
 
     /**
-     * Find a student by their ID
-     * @param id Student ID to search for
-     * @return Student object if found, null otherwise
+     * Delete a student from the database
+     * @param id ID of the student to delete
+     * @return APPLIED, NOT_FOUND, or FAILED if the database could not answer
      */
-    public Student getStudentById(int id) {
-        String sql = "SELECT * FROM students1 WHERE id = ?";
-
-        try (Connection conn = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setInt(1, id);
-            ResultSet rs = pstmt.executeQuery();
+    @Override
+    public WriteResult deleteStudent(int id) {
+        String sql = "DELETE FROM students1 WHERE id = ?";
 
-            if (rs.next()) {
-                return new Student(
-                        rs.getInt("id"),
-                        rs.getString("name"),
-                        rs.getString("email"),
-                        rs.getInt("age"),
-                        rs.getString("course")
-                );
+        WriteResult result = write("deleting student", true, conn -> {
+            try (PreparedStatement pstmt = prepare(conn, sql)) {
+                pstmt.setInt(1, id);
+                return pstmt.executeUpdate();
             }
+        });
 
-        } catch (SQLException e) {
-            System.err.println("Error retrieving student: " + e.getMessage());
+        if (result.isApplied()) {
+            searchCache.invalidateId(id);
         }
-        return null;
+        return result;
     }
 
     /**
-     * Find students by email
-     * @param email Email to search for
-     * @return Student object if found, null otherwise
+     * Get the total count of students in the database
+     * @return FOUND with the number of students, or FAILED if the database could not answer
      */
-    public Student getStudentByEmail(String email) {
-        String sql = "SELECT * FROM students1 WHERE email = ?";
+    @Override
+    public QueryResult<Integer> getStudentCount() {
+        String sql = "SELECT COUNT(*) as count FROM students1";
 
-        try (Connection conn = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        return execute("counting students", true, conn -> {
+            try (PreparedStatement pstmt = prepare(conn, sql);
+                 ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getInt("count") : 0;
+            }
+        });
+    }
+
+    /**
+     * Search students by name (partial match)
+     * The term matches literally, as in findStudents: % and _ are not wildcards
+     * Results are served from the search cache when a cached term can answer them; rows written
+     * by other processes show up once the cached result reaches SEARCH_CACHE_MAX_AGE_MILLIS
+     * @param name Name to search for (case-insensitive)
+     * @return FOUND with the matching students (possibly none), or FAILED if the database could not answer
+     */
+    @Override
+    public QueryResult<List<Student>> searchStudentsByName(String name) {
+        List<Student> cached = searchCache.get(name);
+        if (cached != null) {
+            return QueryResult.of(cached);
+        }
+        long generation = searchCache.generation();
 
-            pstmt.setString(1, email);
-            ResultSet rs = pstmt.executeQuery();
+        String sql = "SELECT " + STUDENT_COLUMNS + " FROM students1 WHERE name LIKE ? ORDER BY name";
 
-            if (rs.next()) {
-                return new Student(
-                        rs.getInt("id"),
-                        rs.getString("name"),
-                        rs.getString("email"),
-                        rs.getInt("age"),
-                        rs.getString("course")
-                );
+        QueryResult<List<Student>> result = execute("searching students1", true, conn -> {
+            try (PreparedStatement pstmt = prepare(conn, sql)) {
+                pstmt.setString(1, "%" + escapeLike(name) + "%");
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    return readStudents(conn, rs);
+                }
             }
+        });
 
-        } catch (SQLException e) {
-            System.err.println("Error retrieving student by email: " + e.getMessage());
+        if (result.isFound()) {
+            searchCache.put(name, result.getValue(), generation);
         }
-        return null;
+        return result;
     }
 
     /**
-     * Update an existing student's information
-     * @param student Student object with updated information
-     * @return true if student was updated successfully, false otherwise
+     * Find students matching a query, filtered, sorted and limited by the database
+     * @param query Conditions, sort order and limit
+     * @return FOUND with the matching students in the query's order (possibly none), or FAILED
      */
-    public boolean updateStudent(Student student) {
-        String sql = "UPDATE students1 SET name = ?, email = ?, age = ?, course = ? WHERE id = ?";
+    @Override
+    public QueryResult<List<Student>> findStudents(StudentQuery query) {
+        String sql = querySqlByShape.computeIfAbsent(query.shape(), shape -> compileQuery(query));
+
+        return execute("querying students", true, conn -> {
+            Integer courseId = null;
+            if (query.getCourse() != null) {
+                courseId = courseDictionary.lookupId(conn, query.getCourse());
+                if (courseId == null) {
+                    // Unknown course: nothing can match, no need to ask
+                    return new ArrayList<>();
+                }
+            }
 
-        try (Connection conn = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            try (PreparedStatement pstmt = prepare(conn, sql)) {
+                // Bind in the same order compileQuery writes the conditions
+                int index = 1;
+                if (courseId != null) {
+                    pstmt.setInt(index++, courseId);
+                }
+                if (query.getMinAge() != null) {
+                    pstmt.setInt(index++, query.getMinAge());
+                }
+                if (query.getMaxAge() != null) {
+                    pstmt.setInt(index++, query.getMaxAge());
+                }
+                if (query.getNameStartsWith() != null) {
+                    pstmt.setString(index++, escapeLike(query.getNameStartsWith()) + "%");
+                }
+                if (query.getNameContains() != null) {
+                    pstmt.setString(index++, "%" + escapeLike(query.getNameContains()) + "%");
+                }
+                if (query.getEmail() != null) {
+                    pstmt.setString(index++, query.getEmail());
+                }
+                if (query.getLimit() != null) {
+                    pstmt.setInt(index, query.getLimit());
+                }
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    return readStudents(conn, rs);
+                }
+            }
+        });
+    }
+
+    /**
+     * Search cache, email filter, course dictionary and circuit breaker statistics
+     */
+    @Override
+    public Map<String, String> getStats() {
+        Map<String, String> stats = new LinkedHashMap<>();
+        stats.put("Search Cache", getSearchCacheStats());
+        stats.put("Email Filter", getEmailFilterStats());
+        stats.put("Courses", Integer.toString(getCourseCount()));
+        stats.put("Circuit Breaker", getCircuitState().toString());
+        return stats;
+    }
 
-            pstmt.setString(1, student.getName());
-            pstmt.setString(2, student.getEmail());
-            pstmt.setInt(3, student.getAge());
-            pstmt.setString(4, student.getCourse());
-            pstmt.setInt(5, student.getId());
+    /**
+     * Get a one-line summary of search cache usage
+     */
+    public String getSearchCacheStats() {
+        return searchCache.getStats();
+    }
 
-            int rowsAffected = pstmt.executeUpdate();
-            return rowsAffected > 0;
+    /**
+     * Get the number of courses held in the in-process course dictionary
+     */
+    public int getCourseCount() {
+        return courseDictionary.size();
+    }
 
+    /**
+     * Get a one-line summary of the email filter's size, accuracy and savings
+     */
+    public String getEmailFilterStats() {
+        EmailBloomFilter filter = emailFilter;
+        if (filter == null) {
+            return "not loaded";
+        }
+        long skipped = emailLookupsSkipped.get();
+        long falsePositives = emailFalsePositives.get();
+        long negatives = skipped + falsePositives;
+        return String.format("emails=%d memory=%dKB hashes=%d expectedFpp=%.3f%% "
+                        + "skippedLookups=%d falsePositives=%d observedFpp=%.3f%%",
+                filter.getInsertions(), filter.getMemoryBytes() / 1024, filter.getHashCount(),
+                filter.expectedFalsePositiveRate() * 100, skipped, falsePositives,
+                negatives == 0 ? 0.0 : 100.0 * falsePositives / negatives);
+    }
+
+    /**
+     * Get the state of the database circuit breaker
+     */
+    public CircuitBreaker.State getCircuitState() {
+        return circuitBreaker.getState();
+    }
+
+    /**
+     * Test database connection
+     * @return true if connection is successful, false otherwise
+     */
+    @Override
+    public boolean testConnection() {
+        try (Connection conn = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD)) {
+            System.out.println("Database connection successful!");
+            return true;
         } catch (SQLException e) {
-            System.err.println("Error updating student: " + e.getMessage());
+            System.err.println("Database connection failed: " + e.getMessage());
             return false;
         }
     }
 
     /**
-     * Delete a student from the database
-     * @param id ID of the student to delete
-     * @return true if student was deleted successfully, false otherwise
+     * Add an email to the live filter and to one being rebuilt
+     * Writers call this both before and after their statement, so whichever side of a
+     * rebuild's table scan the write lands on, the published filter contains the email.
+     * The rebuilding filter must be read first: a rebuild publishes emailFilter before it
+     * clears emailFilterRebuilding, so seeing no rebuild in progress means either the live
+     * filter read next is the rebuilt one, or the next rebuild's scan starts after this write
      */
-    public boolean deleteStudent(int id) {
-        String sql = "DELETE FROM students1 WHERE id = ?";
+    private void rememberEmail(String email) {
+        if (email == null) {
+            return;
+        }
+        EmailBloomFilter rebuilding = emailFilterRebuilding;
+        EmailBloomFilter filter = emailFilter;
+        if (rebuilding != null) {
+            rebuilding.add(email);
+        }
+        if (filter != null) {
+            filter.add(email);
+        }
+    }
 
-        try (Connection conn = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+    /**
+     * Build a fresh email filter from the table and publish it
+     * Until the first build succeeds, email lookups always go to the database
+     */
+    private synchronized void rebuildEmailFilter() {
+        QueryResult<Integer> count = executeInBackground("sizing email filter", OPERATION_DEADLINE_MILLIS, conn -> {
+            try (PreparedStatement pstmt = prepare(conn, "SELECT COUNT(*) FROM students1");
+                 ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        });
+        if (count.isFailed()) {
+            return;
+        }
 
-            pstmt.setInt(1, id);
-            int rowsAffected = pstmt.executeUpdate();
-            return rowsAffected > 0;
+        EmailBloomFilter fresh = new EmailBloomFilter(
+                Math.max(EMAIL_FILTER_MIN_SIZE, 2L * count.getValue()), EMAIL_FILTER_FPP);
+        emailFilterRebuilding = fresh;
+
+        QueryResult<Boolean> loaded = executeInBackground("loading email filter", FILTER_LOAD_DEADLINE_MILLIS, conn -> {
+            try (PreparedStatement pstmt = conn.prepareStatement("SELECT email FROM students1",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                // Connector/J streams rows one at a time with this fetch size
+                pstmt.setFetchSize(Integer.MIN_VALUE);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        fresh.add(rs.getString(1));
+                    }
+                }
+                return true;
+            }
+        });
 
-        } catch (SQLException e) {
-            System.err.println("Error deleting student: " + e.getMessage());
-            return false;
+        if (loaded.isFound()) {
+            emailFilter = fresh;
+            System.out.println("Email filter loaded: " + getEmailFilterStats());
         }
+        emailFilterRebuilding = null;
     }
 
     /**
-     * Get the total count of students in the database
-     * @return Total number of students
+     * Build the filter in the background straight away, then rebuild it on a fixed delay
+     * The first build scans the whole table, so it stays off the startup path; email lookups
+     * go to the database until it finishes. This process only sees its own writes, so the
+     * rebuild runs whether or not it wrote anything
      */
-    public int getStudentCount() {
-        String sql = "SELECT COUNT(*) as count FROM students1";
+    private synchronized void scheduleEmailFilterRebuilds() {
+        if (filterRebuilder != null) {
+            return;
+        }
+        filterRebuilder = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "email-filter-rebuild");
+            t.setDaemon(true);
+            return t;
+        });
+        filterRebuilder.scheduleWithFixedDelay(this::rebuildEmailFilter,
+                0, EMAIL_FILTER_REBUILD_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Run database work behind the circuit breaker, retrying transient failures
+     * @param operation Description used in error messages, e.g. "adding student"
+     * @param idempotent Whether the work may be re-run after it reached the database
+     * @param work Work to run on a fresh connection; returning null means not found
+     * @return FOUND with the work's result, NOT_FOUND for null, or FAILED
+     */
+    private <T> QueryResult<T> execute(String operation, boolean idempotent, SqlWork<T> work) {
+        return execute(operation, idempotent, OPERATION_DEADLINE_MILLIS, true, work);
+    }
 
-        try (Connection conn = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+    /**
+     * Run idempotent background work, such as a filter rebuild, only while the circuit is closed
+     * It never becomes the half-open probe: a long scan holding the probe would keep every
+     * other call failing fast until it finished
+     * @param deadlineMillis Total time allowed, including connecting, retries and backoff
+     */
+    private <T> QueryResult<T> executeInBackground(String operation, long deadlineMillis, SqlWork<T> work) {
+        return execute(operation, true, deadlineMillis, false, work);
+    }
 
-            if (rs.next()) {
-                return rs.getInt("count");
+    /**
+     * Run database work with an explicit deadline covering all attempts
+     * @param deadlineMillis Total time allowed, including connecting, retries and backoff
+     * @param mayProbe Whether this call may be the one let through to test a half-open circuit
+     */
+    private <T> QueryResult<T> execute(String operation, boolean idempotent, long deadlineMillis,
+                                       boolean mayProbe, SqlWork<T> work) {
+        long deadline = System.currentTimeMillis() + deadlineMillis;
+
+        for (int attempt = 1; ; attempt++) {
+            boolean allowed = mayProbe
+                    ? circuitBreaker.allowRequest()
+                    : circuitBreaker.getState() == CircuitBreaker.State.CLOSED;
+            if (!allowed) {
+                System.err.println("Error " + operation + ": database unavailable, failing fast");
+                return QueryResult.failed("Database unavailable");
             }
 
+            boolean connected = false;
+            attemptDeadline.set(deadline);
+            try (Connection conn = connect(deadline)) {
+                connected = true;
+                T value = work.run(conn);
+                circuitBreaker.recordSuccess();
+                return QueryResult.of(value);
+
+            } catch (SQLException e) {
+                if (isDatabaseTrouble(e)) {
+                    circuitBreaker.recordFailure();
+                } else {
+                    // The database answered, it just rejected this statement
+                    circuitBreaker.recordSuccess();
+                }
+
+                boolean retryable = isTransient(e) && (idempotent || !connected);
+                long backoff = backoffMillis(attempt);
+                if (!retryable || attempt >= MAX_ATTEMPTS
+                        || System.currentTimeMillis() + backoff >= deadline) {
+                    System.err.println("Error " + operation + ": " + e.getMessage());
+                    return QueryResult.failed(e.getMessage());
+                }
+
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return QueryResult.failed("Interrupted while " + operation);
+                }
+
+            } catch (RuntimeException e) {
+                // Still settle the breaker, or a failed half-open probe would leave it half-open for good
+                circuitBreaker.recordFailure();
+                throw e;
+            } finally {
+                attemptDeadline.remove();
+            }
+        }
+    }
+
+    /**
+     * Open a connection whose connect and socket timeouts end at the deadline
+     * The network timeout also bounds every statement on the connection, to the millisecond
+     */
+    private Connection connect(long deadline) throws SQLException {
+        long remaining = remainingMillis(deadline);
+        Properties props = new Properties();
+        props.setProperty("user", DB_USER);
+        props.setProperty("password", DB_PASSWORD);
+        props.setProperty("connectTimeout", Long.toString(Math.min(CONNECT_TIMEOUT_MILLIS, remaining)));
+        props.setProperty("socketTimeout", Long.toString(remaining));
+        Connection conn = DriverManager.getConnection(SERVER_URL + DB_NAME, props);
+        try {
+            conn.setNetworkTimeout(Runnable::run, (int) remainingMillis(deadline));
         } catch (SQLException e) {
-            System.err.println("Error counting students: " + e.getMessage());
+            conn.close();
+            throw e;
         }
-        return 0;
+        return conn;
     }
 
     /**
-     * Search students by name (partial match)
-     * @param name Name to search for (case-insensitive)
-     * @return List of students matching the search criteria
+     * Time left before the deadline, failing like a timed-out statement once there is none
      */
-    public List<Student> searchStudentsByName(String name) {
-        List<Student> students = new ArrayList<>();
-        String sql = "SELECT * FROM students1 WHERE name LIKE ? ORDER BY name";
-
-        try (Connection conn = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setString(1, "%" + name + "%");
-            ResultSet rs = pstmt.executeQuery();
-
-            while (rs.next()) {
-                Student student = new Student(
-                        rs.getInt("id"),
-                        rs.getString("name"),
-                        rs.getString("email"),
-                        rs.getInt("age"),
-                        rs.getString("course")
-                );
-                students.add(student);
+    private static long remainingMillis(long deadline) throws SQLTimeoutException {
+        long remaining = deadline - System.currentTimeMillis();
+        if (remaining <= 0) {
+            throw new SQLTimeoutException("Operation deadline exceeded");
+        }
+        return remaining;
+    }
+
+    /**
+     * Run an insert, update or delete through execute
+     * A statement the database refused (constraint or bad data) is REJECTED rather than
+     * FAILED, since the database answered and retrying would not help
+     * @param work Work returning the number of rows affected
+     */
+    private WriteResult write(String operation, boolean idempotent, SqlWork<Integer> work) {
+        QueryResult<WriteResult> result = execute(operation, idempotent, conn -> {
+            try {
+                return work.run(conn) > 0 ? WriteResult.APPLIED : WriteResult.NOT_FOUND;
+            } catch (SQLException e) {
+                if (isDatabaseTrouble(e)) {
+                    throw e;
+                }
+                System.err.println("Error " + operation + ": " + e.getMessage());
+                return WriteResult.REJECTED;
             }
+        });
+        return result.orElse(WriteResult.FAILED);
+    }
 
-        } catch (SQLException e) {
-            System.err.println("Error searching students1: " + e.getMessage());
+    /**
+     * Build the SQL for a query shape
+     * Course and age come first, matching the (course_id, age) index
+     */
+    static String compileQuery(StudentQuery query) {
+        List<String> conditions = new ArrayList<>();
+        if (query.getCourse() != null) {
+            conditions.add("course_id = ?");
+        }
+        if (query.getMinAge() != null && query.getMaxAge() != null) {
+            conditions.add("age BETWEEN ? AND ?");
+        } else if (query.getMinAge() != null) {
+            conditions.add("age >= ?");
+        } else if (query.getMaxAge() != null) {
+            conditions.add("age <= ?");
+        }
+        if (query.getNameStartsWith() != null) {
+            conditions.add("name LIKE ?");
+        }
+        if (query.getNameContains() != null) {
+            conditions.add("name LIKE ?");
+        }
+        if (query.getEmail() != null) {
+            conditions.add("email = ?");
+        }
+
+        StringBuilder sql = new StringBuilder("SELECT ").append(STUDENT_COLUMNS).append(" FROM students1");
+        if (!conditions.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        sql.append(" ORDER BY ").append(query.getSortField().getColumn());
+        sql.append(query.isDescending() ? " DESC" : " ASC");
+        if (query.getSortField() != StudentQuery.SortField.ID) {
+            sql.append(", id");
         }
+        if (query.getLimit() != null) {
+            sql.append(" LIMIT ?");
+        }
+        return sql.toString();
+    }
+
+    /**
+     * Escape LIKE wildcards so user text only matches literally
+     */
+    static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    /**
+     * Prepare a traced statement with the query timeout applied
+     * The timeout is the standard one or what is left of the operation's deadline, if less
+     */
+    private PreparedStatement prepare(Connection conn, String sql) throws SQLException {
+        return prepare(conn, sql, Statement.NO_GENERATED_KEYS);
+    }
+
+    /**
+     * Prepare a traced statement, asking the driver to return generated keys if requested
+     */
+    private PreparedStatement prepare(Connection conn, String sql, int autoGeneratedKeys) throws SQLException {
+        int timeoutSeconds = QUERY_TIMEOUT_SECONDS;
+        Long deadline = attemptDeadline.get();
+        if (deadline != null) {
+            // Whole seconds only; the connection's network timeout enforces the exact deadline
+            long remaining = remainingMillis(deadline);
+            timeoutSeconds = (int) Math.min(QUERY_TIMEOUT_SECONDS, (remaining + 999) / 1000);
+        }
+        PreparedStatement pstmt = conn.prepareStatement(sql, autoGeneratedKeys);
+        pstmt.setQueryTimeout(timeoutSeconds);
+        return sqlTracer.trace(pstmt, sql);
+    }
+
+    /**
+     * Map the current row; the course name is the dictionary's shared instance
+     */
+    private Student readStudent(Connection conn, ResultSet rs) throws SQLException {
+        return new Student(
+                rs.getInt("id"),
+                rs.getString("name"),
+                rs.getString("email"),
+                rs.getInt("age"),
+                courseDictionary.nameFor(conn, rs.getInt("course_id"))
+        );
+    }
 
+    private List<Student> readStudents(Connection conn, ResultSet rs) throws SQLException {
+        List<Student> students = new ArrayList<>();
+        while (rs.next()) {
+            students.add(readStudent(conn, rs));
+        }
         return students;
     }
 
     /**
-     * Test database connection
-     * @return true if connection is successful, false otherwise
+     * Failures worth retrying: lost connections and deadlocks
+     * Timeouts are not retried: the database was already too slow once, and a second
+     * full statement would only add to its load and run past the deadline
      */
-    public boolean testConnection() {
-        try (Connection conn = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD)) {
-            System.out.println("Database connection successful!");
-            return true;
-        } catch (SQLException e) {
-            System.err.println("Database connection failed: " + e.getMessage());
+    private static boolean isTransient(SQLException e) {
+        if (isTimeout(e)) {
             return false;
         }
+        String state = e.getSQLState();
+        return e instanceof SQLTransientException
+                || e instanceof SQLRecoverableException
+                || (state != null && (state.startsWith("08") || state.equals("40001")));
+    }
+
+    /**
+     * Statement, lock wait or socket read timeouts, however the driver reports them
+     */
+    private static boolean isTimeout(SQLException e) {
+        if (e instanceof SQLTimeoutException || e.getErrorCode() == 1205) {  // ER_LOCK_WAIT_TIMEOUT
+            return true;
+        }
+        for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof SocketTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Failures that say the database is unhealthy, as opposed to a rejected statement
+     * such as a duplicate email (class 23), bad data (22) or bad SQL (42)
+     */
+    private static boolean isDatabaseTrouble(SQLException e) {
+        String state = e.getSQLState();
+        if (state == null) {
+            return true;
+        }
+        return !(state.startsWith("22") || state.startsWith("23") || state.startsWith("42"));
+    }
+
+    /**
+     * Full-jitter exponential backoff, so retrying clients do not stampede together
+     */
+    private static long backoffMillis(int attempt) {
+        long ceiling = Math.min(MAX_BACKOFF_MILLIS, BASE_BACKOFF_MILLIS << (attempt - 1));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
     }
 }
\ No newline at end of file
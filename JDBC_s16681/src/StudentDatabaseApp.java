@@ -10,16 +10,24 @@ public class StudentDatabaseApp {
     private boolean isRunning;
 
     public StudentDatabaseApp() {
-        this.studentService = new StudentService();
+        this(new StudentService());
+    }
+
+    public StudentDatabaseApp(StudentService studentService) {
+        this.studentService = studentService;
         this.scanner = new Scanner(System.in);
         this.isRunning = true;
     }
 
     /**
      * Main method - entry point of the application
+     * Pass --in-memory to run without a MySQL database
      */
     public static void main(String[] args) {
-        StudentDatabaseApp app = new StudentDatabaseApp();
+        boolean inMemory = args.length > 0 && args[0].equals("--in-memory");
+        StudentRepository repository = inMemory ? new InMemoryStudentRepository() : new StudentDAO();
+
+        StudentDatabaseApp app = new StudentDatabaseApp(new StudentService(repository));
         app.run();
     }
 
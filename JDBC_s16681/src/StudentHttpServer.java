@@ -0,0 +1,503 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Embedded HTTP/JSON front-end exposing the student operations
+ * Each request runs on its own virtual thread; database work is bounded and time-limited
+ *
+ * GET    /students              list students, by id
+ * GET    /students?name=x       search by name
+ * GET    /students?course=c&minAge=18&maxAge=21&prefix=p&sort=age&order=desc&limit=50
+ *                               filtered query; any combination of parameters
+ *
+ * Lists are loaded in full before the first byte is sent, then written in chunks, so
+ * listings and filtered queries return at most DEFAULT_LIST_LIMIT students unless a limit
+ * is given; a plain name search is not capped
+ * GET    /students/count        total number of students
+ * GET    /students/{id}         one student
+ * POST   /students              add a student
+ * PUT    /students/{id}         update the given fields of a student
+ * DELETE /students/{id}         delete a student
+ */
+public class StudentHttpServer {
+    private static final int DEFAULT_PORT = 8080;
+
+    // Upper bound on concurrent database operations; excess requests wait briefly then get 503
+    private static final int MAX_CONCURRENT_DB_OPERATIONS = 16;
+    private static final long PERMIT_WAIT_MILLIS = 200;
+
+    // Deadline for a single request's database work
+    private static final long REQUEST_TIMEOUT_MILLIS = 5_000;
+
+    private static final int MAX_BODY_BYTES = 16 * 1024;
+
+    // Rows returned by a listing or filtered query without an explicit limit
+    private static final int DEFAULT_LIST_LIMIT = 1_000;
+
+    private final StudentRepository studentRepository;
+    private final Semaphore dbPermits = new Semaphore(MAX_CONCURRENT_DB_OPERATIONS, true);
+    private final ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+    private HttpServer server;
+
+    public StudentHttpServer(StudentRepository studentRepository) {
+        this.studentRepository = studentRepository;
+    }
+
+    /**
+     * Start the server - entry point for HTTP mode
+     * @param args optional port number, then --in-memory to serve without MySQL
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        boolean inMemory = args.length > 1 && args[1].equals("--in-memory");
+
+        StudentRepository repository = inMemory ? new InMemoryStudentRepository() : new StudentDAO();
+        repository.initializeDatabase();
+
+        StudentHttpServer httpServer = new StudentHttpServer(repository);
+        httpServer.start(port);
+        Runtime.getRuntime().addShutdownHook(new Thread(httpServer::stop));
+    }
+
+    /**
+     * Bind to localhost and start serving
+     * @param port TCP port to listen on
+     */
+    public void start(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        server.createContext("/students", this::handle);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.start();
+        System.out.println("Student HTTP server listening on http://localhost:" + port + "/students");
+    }
+
+    /**
+     * Stop accepting requests and give in-flight ones a moment to finish
+     */
+    public void stop() {
+        if (server != null) {
+            server.stop(1);
+        }
+        workers.shutdown();
+    }
+
+    /**
+     * Route a request by method and path
+     */
+    private void handle(HttpExchange exchange) {
+        try {
+            String method = exchange.getRequestMethod();
+            String path = exchange.getRequestURI().getPath();
+            String rest = path.length() > "/students".length() ? path.substring("/students/".length()) : "";
+
+            if (rest.isEmpty()) {
+                switch (method) {
+                    case "GET" -> handleList(exchange);
+                    case "POST" -> handleAdd(exchange);
+                    default -> sendError(exchange, 405, "Method not allowed");
+                }
+            } else if (rest.equals("count")) {
+                if (method.equals("GET")) {
+                    int count = lookup(studentRepository::getStudentCount);
+                    sendJson(exchange, 200, "{\"count\":" + count + "}");
+                } else {
+                    sendError(exchange, 405, "Method not allowed");
+                }
+            } else {
+                int id = parseId(rest);
+                switch (method) {
+                    case "GET" -> handleGet(exchange, id);
+                    case "PUT" -> handleUpdate(exchange, id);
+                    case "DELETE" -> handleDelete(exchange, id);
+                    default -> sendError(exchange, 405, "Method not allowed");
+                }
+            }
+        } catch (BadRequestException e) {
+            sendError(exchange, 400, e.getMessage());
+        } catch (ServiceUnavailableException e) {
+            exchange.getResponseHeaders().set("Retry-After", "1");
+            sendError(exchange, 503, e.getMessage());
+        } catch (TimeoutException e) {
+            sendError(exchange, 504, "Request timed out");
+        } catch (Exception e) {
+            System.err.println("Error handling " + exchange.getRequestURI() + ": " + e.getMessage());
+            sendError(exchange, 500, "Internal error");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void handleList(HttpExchange exchange) throws Exception {
+        String name = queryParam(exchange, "name");
+        List<Student> students;
+        StudentQuery query = buildQuery(exchange);
+        if (query != null) {
+            students = lookup(() -> studentRepository.findStudents(query));
+        } else if (name == null) {
+            StudentQuery firstPage = StudentQuery.builder().limit(DEFAULT_LIST_LIMIT).build();
+            students = lookup(() -> studentRepository.findStudents(firstPage));
+        } else if (name.trim().isEmpty()) {
+            throw new BadRequestException("Search term cannot be empty");
+        } else {
+            students = lookup(() -> studentRepository.searchStudentsByName(name.trim()));
+        }
+        writeStudents(exchange, students);
+    }
+
+    /**
+     * Build a filtered query from the request parameters
+     * @return The query, or null if only a plain name search (or nothing) was requested
+     */
+    private static StudentQuery buildQuery(HttpExchange exchange) {
+        String course = queryParam(exchange, "course");
+        String minAge = queryParam(exchange, "minAge");
+        String maxAge = queryParam(exchange, "maxAge");
+        String prefix = queryParam(exchange, "prefix");
+        String sort = queryParam(exchange, "sort");
+        String order = queryParam(exchange, "order");
+        String limit = queryParam(exchange, "limit");
+        if (course == null && minAge == null && maxAge == null && prefix == null
+                && sort == null && order == null && limit == null) {
+            return null;
+        }
+
+        try {
+            StudentQuery.Builder builder = StudentQuery.builder();
+            String name = queryParam(exchange, "name");
+            if (name != null) {
+                builder.nameContains(name);
+            }
+            if (prefix != null) {
+                builder.nameStartsWith(prefix);
+            }
+            if (course != null) {
+                builder.course(course);
+            }
+            if (minAge != null) {
+                builder.minAge(parseNumber(minAge, "minAge"));
+            }
+            if (maxAge != null) {
+                builder.maxAge(parseNumber(maxAge, "maxAge"));
+            }
+            if (sort != null || order != null) {
+                StudentQuery.SortField field = sort == null ? StudentQuery.SortField.ID : parseSortField(sort);
+                builder.orderBy(field, "desc".equalsIgnoreCase(order));
+            }
+            builder.limit(limit != null ? parseNumber(limit, "limit") : DEFAULT_LIST_LIMIT);
+            return builder.build();
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage());
+        }
+    }
+
+    private void handleGet(HttpExchange exchange, int id) throws Exception {
+        Student student = lookup(() -> studentRepository.findStudentById(id));
+        if (student == null) {
+            sendError(exchange, 404, "Student not found with ID: " + id);
+            return;
+        }
+        sendJson(exchange, 200, toJson(student));
+    }
+
+    private void handleAdd(HttpExchange exchange) throws Exception {
+        Map<String, Object> body = readBody(exchange);
+        String name = requireString(body, "name");
+        String email = requireString(body, "email");
+        int age = requireInt(body, "age");
+        String course = requireString(body, "course");
+
+        if (!StudentService.isValidEmail(email)) {
+            throw new BadRequestException("Please enter a valid email address");
+        }
+        if (age <= 0 || age > 150) {
+            throw new BadRequestException("Please enter a valid age (1-150)");
+        }
+        if (lookup(() -> studentRepository.findStudentByEmail(email)) != null) {
+            sendError(exchange, 409, "Email already exists");
+            return;
+        }
+
+        Student student = new Student(name, email, age, course);
+        if (write(() -> studentRepository.addStudent(student)) == WriteResult.REJECTED) {
+            // Lost a race with another insert of the same email, or the data was refused
+            sendError(exchange, 409, "Student rejected; the email may already exist");
+            return;
+        }
+        // addStudent has set the generated id, so the row is not read back
+        sendJson(exchange, 201, toJson(student));
+    }
+
+    private void handleUpdate(HttpExchange exchange, int id) throws Exception {
+        Map<String, Object> body = readBody(exchange);
+        Student student = lookup(() -> studentRepository.findStudentById(id));
+        if (student == null) {
+            sendError(exchange, 404, "Student not found with ID: " + id);
+            return;
+        }
+
+        // Only the fields present in the body are changed, as in the console update
+        if (body.containsKey("name")) {
+            student.setName(requireString(body, "name"));
+        }
+        if (body.containsKey("email")) {
+            String email = requireString(body, "email");
+            if (!StudentService.isValidEmail(email)) {
+                throw new BadRequestException("Please enter a valid email address");
+            }
+            Student existing = lookup(() -> studentRepository.findStudentByEmail(email));
+            if (existing != null && existing.getId() != id) {
+                sendError(exchange, 409, "Email already exists");
+                return;
+            }
+            student.setEmail(email);
+        }
+        if (body.containsKey("age")) {
+            int age = requireInt(body, "age");
+            if (age <= 0 || age > 150) {
+                throw new BadRequestException("Please enter a valid age (1-150)");
+            }
+            student.setAge(age);
+        }
+        if (body.containsKey("course")) {
+            student.setCourse(requireString(body, "course"));
+        }
+
+        switch (write(() -> studentRepository.updateStudent(student))) {
+            case APPLIED -> sendJson(exchange, 200, toJson(student));
+            case NOT_FOUND -> sendError(exchange, 404, "Student not found with ID: " + id);
+            default -> sendError(exchange, 409, "Update rejected; the email may already exist");
+        }
+    }
+
+    private void handleDelete(HttpExchange exchange, int id) throws Exception {
+        if (write(() -> studentRepository.deleteStudent(id)).isApplied()) {
+            exchange.sendResponseHeaders(204, -1);
+        } else {
+            sendError(exchange, 404, "Student not found with ID: " + id);
+        }
+    }
+
+    /**
+     * Run a DAO call under a concurrency permit and the request deadline
+     * The permit is held until the call itself finishes, even if the client has given up,
+     * so the number of open database connections never exceeds the bound. Whichever of the
+     * task and the timeout path claims the permit first releases it: a task cancelled before
+     * it started never runs, so the timeout path must give its permit back
+     */
+    private <T> T callDatabase(Callable<T> call) throws Exception {
+        if (!dbPermits.tryAcquire(PERMIT_WAIT_MILLIS, TimeUnit.MILLISECONDS)) {
+            throw new ServiceUnavailableException("Server busy, please retry");
+        }
+
+        AtomicBoolean claimed = new AtomicBoolean();
+        Future<T> future;
+        try {
+            future = workers.submit(() -> {
+                if (!claimed.compareAndSet(false, true)) {
+                    // Timed out before starting; the permit was already released
+                    throw new CancellationException();
+                }
+                try {
+                    return call.call();
+                } finally {
+                    dbPermits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            dbPermits.release();
+            throw new ServiceUnavailableException("Server shutting down");
+        }
+
+        try {
+            return future.get(REQUEST_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            if (claimed.compareAndSet(false, true)) {
+                dbPermits.release();
+            }
+            throw e;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof Exception ? (Exception) cause : e;
+        }
+    }
+
+    /**
+     * Run a read through callDatabase, turning a database failure into 503
+     * @return The value, or null if it does not exist
+     */
+    private <T> T lookup(Callable<QueryResult<T>> call) throws Exception {
+        QueryResult<T> result = callDatabase(call);
+        if (result.isFailed()) {
+            throw new ServiceUnavailableException("Database unavailable");
+        }
+        return result.getValue();
+    }
+
+    /**
+     * Run a write through callDatabase, turning a database failure into 503
+     * @return APPLIED, NOT_FOUND or REJECTED
+     */
+    private WriteResult write(Callable<WriteResult> call) throws Exception {
+        WriteResult result = callDatabase(call);
+        if (result == WriteResult.FAILED) {
+            throw new ServiceUnavailableException("Database unavailable");
+        }
+        return result;
+    }
+
+    /**
+     * Write an already loaded list as a JSON array using chunked transfer encoding
+     * Saves building the whole response body in memory, but not the list itself
+     */
+    private void writeStudents(HttpExchange exchange, List<Student> students) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(200, 0);
+
+        try (Writer out = new BufferedWriter(
+                new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8))) {
+            out.write('[');
+            boolean first = true;
+            for (Student student : students) {
+                if (!first) {
+                    out.write(',');
+                }
+                StudentJson.writeStudent(out, student);
+                first = false;
+            }
+            out.write(']');
+        }
+    }
+
+    private static String toJson(Student student) throws IOException {
+        StringWriter out = new StringWriter();
+        StudentJson.writeStudent(out, student);
+        return out.toString();
+    }
+
+    private static void sendJson(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) {
+        try {
+            StringWriter out = new StringWriter();
+            out.write("{\"error\":");
+            StudentJson.writeString(out, message);
+            out.write('}');
+            sendJson(exchange, status, out.toString());
+        } catch (IOException e) {
+            // Client went away or headers were already sent; nothing more to do
+        }
+    }
+
+    private static Map<String, Object> readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] bytes = in.readNBytes(MAX_BODY_BYTES + 1);
+            if (bytes.length > MAX_BODY_BYTES) {
+                throw new BadRequestException("Request body too large");
+            }
+            return StudentJson.parseObject(new String(bytes, StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid JSON: " + e.getMessage());
+        }
+    }
+
+    private static String queryParam(HttpExchange exchange, String name) {
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) {
+            return null;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq < 0 ? pair : pair.substring(0, eq);
+            if (key.equals(name)) {
+                return eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    private static int parseId(String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Invalid student ID: " + value);
+        }
+    }
+
+    private static StudentQuery.SortField parseSortField(String value) {
+        for (StudentQuery.SortField field : StudentQuery.SortField.values()) {
+            if (field.name().equalsIgnoreCase(value)) {
+                return field;
+            }
+        }
+        throw new BadRequestException("sort must be one of id, name, email, age");
+    }
+
+    private static int parseNumber(String value, String field) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException(field + " must be a whole number");
+        }
+    }
+
+    private static String requireString(Map<String, Object> body, String field) {
+        Object value = body.get(field);
+        if (!(value instanceof String) || ((String) value).trim().isEmpty()) {
+            throw new BadRequestException(field + " cannot be empty");
+        }
+        return ((String) value).trim();
+    }
+
+    private static int requireInt(Map<String, Object> body, String field) {
+        Object value = body.get(field);
+        if (!(value instanceof Long) || (Long) value < Integer.MIN_VALUE || (Long) value > Integer.MAX_VALUE) {
+            throw new BadRequestException(field + " must be a whole number");
+        }
+        return ((Long) value).intValue();
+    }
+
+    /**
+     * Client error, reported as 400
+     */
+    private static class BadRequestException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        BadRequestException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Database at capacity or unavailable, reported as 503
+     */
+    private static class ServiceUnavailableException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        ServiceUnavailableException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,236 @@
+import java.util.Comparator;
+import java.util.Locale;
+
+/**
+ * Filter, sort order and limit for a student query
+ * Built with StudentQuery.builder(); StudentDAO compiles it to a parameterised SQL statement
+ * and InMemoryStudentRepository evaluates it directly
+ */
+public final class StudentQuery {
+
+    /**
+     * Columns results can be sorted by
+     */
+    public enum SortField {
+        ID("id", Comparator.comparingInt(Student::getId)),
+        NAME("name", Comparator.comparing(s -> s.getName().toLowerCase(Locale.ROOT))),
+        EMAIL("email", Comparator.comparing(s -> s.getEmail().toLowerCase(Locale.ROOT))),
+        AGE("age", Comparator.comparingInt(Student::getAge));
+
+        private final String column;
+        private final Comparator<Student> comparator;
+
+        SortField(String column, Comparator<Student> comparator) {
+            this.column = column;
+            this.comparator = comparator;
+        }
+
+        public String getColumn() {
+            return column;
+        }
+    }
+
+    private final String nameContains;
+    private final String nameStartsWith;
+    private final String email;
+    private final Integer minAge;
+    private final Integer maxAge;
+    private final String course;
+    private final SortField sortField;
+    private final boolean descending;
+    private final Integer limit;
+
+    private StudentQuery(Builder b) {
+        this.nameContains = b.nameContains;
+        this.nameStartsWith = b.nameStartsWith;
+        this.email = b.email;
+        this.minAge = b.minAge;
+        this.maxAge = b.maxAge;
+        this.course = b.course;
+        this.sortField = b.sortField;
+        this.descending = b.descending;
+        this.limit = b.limit;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public String getNameContains() {
+        return nameContains;
+    }
+
+    public String getNameStartsWith() {
+        return nameStartsWith;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public Integer getMinAge() {
+        return minAge;
+    }
+
+    public Integer getMaxAge() {
+        return maxAge;
+    }
+
+    public String getCourse() {
+        return course;
+    }
+
+    public SortField getSortField() {
+        return sortField;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+
+    public Integer getLimit() {
+        return limit;
+    }
+
+    /**
+     * Key identifying which conditions are present, not their values
+     * Queries with the same shape compile to the same SQL text
+     */
+    public String shape() {
+        return (nameContains != null ? "n~" : "")
+                + (nameStartsWith != null ? "n^" : "")
+                + (email != null ? "e=" : "")
+                + (minAge != null ? "a>" : "")
+                + (maxAge != null ? "a<" : "")
+                + (course != null ? "c=" : "")
+                + "|" + sortField + (descending ? "-" : "+")
+                + (limit != null ? "|l" : "");
+    }
+
+    /**
+     * Evaluate the filter in Java, with the same case-insensitive matching as MySQL
+     */
+    public boolean matches(Student student) {
+        String name = student.getName().toLowerCase(Locale.ROOT);
+        return (nameContains == null || name.contains(nameContains.toLowerCase(Locale.ROOT)))
+                && (nameStartsWith == null || name.startsWith(nameStartsWith.toLowerCase(Locale.ROOT)))
+                && (email == null || student.getEmail().equalsIgnoreCase(email))
+                && (minAge == null || student.getAge() >= minAge)
+                && (maxAge == null || student.getAge() <= maxAge)
+                && (course == null || student.getCourse().equalsIgnoreCase(course));
+    }
+
+    /**
+     * Result order; ties are broken by id so paging is stable
+     */
+    public Comparator<Student> comparator() {
+        Comparator<Student> order = descending ? sortField.comparator.reversed() : sortField.comparator;
+        return sortField == SortField.ID ? order : order.thenComparingInt(Student::getId);
+    }
+
+    /**
+     * Builder for StudentQuery; every condition is optional
+     */
+    public static final class Builder {
+        private String nameContains;
+        private String nameStartsWith;
+        private String email;
+        private Integer minAge;
+        private Integer maxAge;
+        private String course;
+        private SortField sortField = SortField.ID;
+        private boolean descending;
+        private Integer limit;
+
+        private Builder() {}
+
+        /**
+         * Name contains the text (case-insensitive)
+         */
+        public Builder nameContains(String text) {
+            this.nameContains = requireText(text, "name");
+            return this;
+        }
+
+        /**
+         * Name starts with the text (case-insensitive); can use the name index
+         */
+        public Builder nameStartsWith(String prefix) {
+            this.nameStartsWith = requireText(prefix, "name prefix");
+            return this;
+        }
+
+        /**
+         * Email equals the address (case-insensitive)
+         */
+        public Builder email(String email) {
+            this.email = requireText(email, "email");
+            return this;
+        }
+
+        /**
+         * Age at least min (inclusive)
+         */
+        public Builder minAge(int min) {
+            this.minAge = min;
+            return this;
+        }
+
+        /**
+         * Age at most max (inclusive)
+         */
+        public Builder maxAge(int max) {
+            this.maxAge = max;
+            return this;
+        }
+
+        /**
+         * Age between min and max, both inclusive
+         */
+        public Builder ageBetween(int min, int max) {
+            if (min > max) {
+                throw new IllegalArgumentException("Minimum age must not exceed maximum age");
+            }
+            return minAge(min).maxAge(max);
+        }
+
+        /**
+         * Course name equals the given course (case-insensitive)
+         */
+        public Builder course(String course) {
+            this.course = requireText(course, "course");
+            return this;
+        }
+
+        public Builder orderBy(SortField field, boolean descending) {
+            if (field == null) {
+                throw new IllegalArgumentException("Sort field cannot be null");
+            }
+            this.sortField = field;
+            this.descending = descending;
+            return this;
+        }
+
+        public Builder limit(int limit) {
+            if (limit <= 0) {
+                throw new IllegalArgumentException("Limit must be positive");
+            }
+            this.limit = limit;
+            return this;
+        }
+
+        public StudentQuery build() {
+            if (minAge != null && maxAge != null && minAge > maxAge) {
+                throw new IllegalArgumentException("Minimum age must not exceed maximum age");
+            }
+            return new StudentQuery(this);
+        }
+
+        private static String requireText(String value, String what) {
+            if (value == null || value.trim().isEmpty()) {
+                throw new IllegalArgumentException(what + " cannot be empty");
+            }
+            return value.trim();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Storage operations for Student records
+ * Implemented by the MySQL-backed StudentDAO and by InMemoryStudentRepository
+ */
+public interface StudentRepository {
+
+    /**
+     * Prepare the backing store for use
+     */
+    void initializeDatabase();
+
+    /**
+     * Add a new student
+     * @param student Student object to add; when the add is APPLIED its id is set to the one assigned
+     * @return APPLIED, REJECTED (e.g. duplicate email), or FAILED if the store could not answer
+     */
+    WriteResult addStudent(Student student);
+
+    /**
+     * Retrieve all students
+     * @return FOUND with all students ordered by ID (possibly none), or FAILED
+     */
+    QueryResult<List<Student>> getAllStudents();
+
+    /**
+     * Find a student by their ID, reporting failures separately from a missing student
+     * @param id Student ID to search for
+     * @return FOUND with the student, NOT_FOUND, or FAILED if the store could not answer
+     */
+    QueryResult<Student> findStudentById(int id);
+
+    /**
+     * Find a student by email, reporting failures separately from a missing student
+     * @param email Email to search for
+     * @return FOUND with the student, NOT_FOUND, or FAILED if the store could not answer
+     */
+    QueryResult<Student> findStudentByEmail(String email);
+
+    /**
+     * Update an existing student's information
+     * @param student Student object with updated information
+     * @return APPLIED, NOT_FOUND, REJECTED (e.g. duplicate email), or FAILED
+     */
+    WriteResult updateStudent(Student student);
+
+    /**
+     * Delete a student
+     * @param id ID of the student to delete
+     * @return APPLIED, NOT_FOUND, or FAILED
+     */
+    WriteResult deleteStudent(int id);
+
+    /**
+     * Get the total count of students
+     * @return FOUND with the number of students, or FAILED
+     */
+    QueryResult<Integer> getStudentCount();
+
+    /**
+     * Search students by name (partial match)
+     * @param name Name to search for (case-insensitive)
+     * @return FOUND with the matching students ordered by name (possibly none), or FAILED
+     */
+    QueryResult<List<Student>> searchStudentsByName(String name);
+
+    /**
+     * Find students matching a query
+     * @param query Conditions, sort order and limit
+     * @return FOUND with the matching students in the query's order (possibly none), or FAILED
+     */
+    QueryResult<List<Student>> findStudents(StudentQuery query);
+
+    /**
+     * Test that the backing store is reachable
+     * @return true if it is, false otherwise
+     */
+    boolean testConnection();
+
+    /**
+     * Backend-specific statistics for display
+     * @return Values keyed by label, in display order; empty if the backend has none
+     */
+    default Map<String, String> getStats() {
+        return Map.of();
+    }
+
+    /**
+     * Find a student by their ID
+     * @param id Student ID to search for
+     * @return Student object if found, null otherwise
+     */
+    default Student getStudentById(int id) {
+        return findStudentById(id).getValue();
+    }
+
+    /**
+     * Find students by email
+     * @param email Email to search for
+     * @return Student object if found, null otherwise
+     */
+    default Student getStudentByEmail(String email) {
+        return findStudentByEmail(email).getValue();
+    }
+}
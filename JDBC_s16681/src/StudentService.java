@@ -6,11 +6,15 @@ import java.util.Scanner;
  * Acts as a bridge between the console interface and data access layer
  */
 public class StudentService {
-    private StudentDAO studentDAO;
+    private StudentRepository studentRepository;
     private Scanner scanner;
 
     public StudentService() {
-        this.studentDAO = new StudentDAO();
+        this(new StudentDAO());
+    }
+
+    public StudentService(StudentRepository studentRepository) {
+        this.studentRepository = studentRepository;
         this.scanner = new Scanner(System.in);
     }
 
@@ -18,14 +22,19 @@ public class StudentService {
      * Initialize the database
      */
     public void initializeDatabase() {
-        studentDAO.initializeDatabase();
+        studentRepository.initializeDatabase();
     }
 
     /**
      * Display all students in a formatted way
      */
     public void displayAllStudents() {
-        List<Student> students = studentDAO.getAllStudents();
+        QueryResult<List<Student>> result = studentRepository.getAllStudents();
+        if (result.isFailed()) {
+            System.out.println("✗ Database unavailable, please try again later.");
+            return;
+        }
+        List<Student> students = result.getValue();
 
         System.out.println("\n=== ALL STUDENTS ===");
         System.out.println("------------------------------------------------------------");
@@ -63,7 +72,12 @@ public class StudentService {
             }
 
             // Check if email already exists
-            if (studentDAO.getStudentByEmail(email) != null) {
+            QueryResult<Student> existing = studentRepository.findStudentByEmail(email);
+            if (existing.isFailed()) {
+                System.out.println("✗ Database unavailable, please try again later.");
+                return;
+            }
+            if (existing.isFound()) {
                 System.out.println("Email already exists! Please use a different email.");
                 return;
             }
@@ -83,10 +97,10 @@ public class StudentService {
 
             Student student = new Student(name, email, age, course);
 
-            if (studentDAO.addStudent(student)) {
-                System.out.println("✓ Student added successfully!");
-            } else {
-                System.out.println("✗ Failed to add student. Please try again.");
+            switch (studentRepository.addStudent(student)) {
+                case APPLIED -> System.out.println("✓ Student added successfully!");
+                case FAILED -> System.out.println("✗ Database unavailable, please try again later.");
+                default -> System.out.println("✗ Student was rejected; the email may already exist.");
             }
 
         } catch (Exception e) {
@@ -99,11 +113,13 @@ public class StudentService {
      */
     public void viewStudentById() {
         int id = getIntInput("\nEnter student ID: ");
-        Student student = studentDAO.getStudentById(id);
+        QueryResult<Student> result = studentRepository.findStudentById(id);
 
-        if (student != null) {
+        if (result.isFound()) {
             System.out.println("\n=== STUDENT DETAILS ===");
-            System.out.println(student);
+            System.out.println(result.getValue());
+        } else if (result.isFailed()) {
+            System.out.println("✗ Database unavailable, please try again later.");
         } else {
             System.out.println("✗ Student not found with ID: " + id);
         }
@@ -114,10 +130,8 @@ public class StudentService {
      */
     public void updateStudent() {
         int id = getIntInput("\nEnter student ID to update: ");
-        Student student = studentDAO.getStudentById(id);
-
+        Student student = findStudentOrReport(id);
         if (student == null) {
-            System.out.println("✗ Student not found with ID: " + id);
             return;
         }
 
@@ -138,8 +152,10 @@ public class StudentService {
             if (!isValidEmail(email)) {
                 System.out.println("Invalid email format. Keeping current value.");
             } else {
-                Student existingStudent = studentDAO.getStudentByEmail(email);
-                if (existingStudent != null && existingStudent.getId() != student.getId()) {
+                QueryResult<Student> existing = studentRepository.findStudentByEmail(email);
+                if (existing.isFailed()) {
+                    System.out.println("Could not check email (database unavailable). Keeping current value.");
+                } else if (existing.isFound() && existing.getValue().getId() != student.getId()) {
                     System.out.println("Email already exists. Keeping current value.");
                 } else {
                     student.setEmail(email);
@@ -170,10 +186,11 @@ public class StudentService {
             student.setCourse(course);
         }
 
-        if (studentDAO.updateStudent(student)) {
-            System.out.println("✓ Student updated successfully!");
-        } else {
-            System.out.println("✗ Failed to update student.");
+        switch (studentRepository.updateStudent(student)) {
+            case APPLIED -> System.out.println("✓ Student updated successfully!");
+            case NOT_FOUND -> System.out.println("✗ Student not found with ID: " + id);
+            case REJECTED -> System.out.println("✗ Update was rejected; the email may already exist.");
+            case FAILED -> System.out.println("✗ Database unavailable, please try again later.");
         }
     }
 
@@ -182,10 +199,8 @@ public class StudentService {
      */
     public void deleteStudent() {
         int id = getIntInput("\nEnter student ID to delete: ");
-        Student student = studentDAO.getStudentById(id);
-
+        Student student = findStudentOrReport(id);
         if (student == null) {
-            System.out.println("✗ Student not found with ID: " + id);
             return;
         }
 
@@ -194,10 +209,10 @@ public class StudentService {
         String confirm = scanner.nextLine().trim();
 
         if (confirm.equalsIgnoreCase("y") || confirm.equalsIgnoreCase("yes")) {
-            if (studentDAO.deleteStudent(id)) {
-                System.out.println("✓ Student deleted successfully!");
-            } else {
-                System.out.println("✗ Failed to delete student.");
+            switch (studentRepository.deleteStudent(id)) {
+                case APPLIED -> System.out.println("✓ Student deleted successfully!");
+                case FAILED -> System.out.println("✗ Database unavailable, please try again later.");
+                default -> System.out.println("✗ Student not found with ID: " + id);
             }
         } else {
             System.out.println("Deletion cancelled.");
@@ -216,7 +231,12 @@ public class StudentService {
             return;
         }
 
-        List<Student> students = studentDAO.searchStudentsByName(searchName);
+        QueryResult<List<Student>> result = studentRepository.searchStudentsByName(searchName);
+        if (result.isFailed()) {
+            System.out.println("✗ Database unavailable, please try again later.");
+            return;
+        }
+        List<Student> students = result.getValue();
 
         System.out.println("\n=== SEARCH RESULTS ===");
         System.out.println("------------------------------------------------------------");
@@ -236,12 +256,27 @@ public class StudentService {
      * Display database statistics
      */
     public void showStatistics() {
-        int totalStudents = studentDAO.getStudentCount();
+        QueryResult<Integer> totalStudents = studentRepository.getStudentCount();
         System.out.println("\n=== DATABASE STATISTICS ===");
-        System.out.println("Total Students: " + totalStudents);
+        System.out.println("Total Students: " + (totalStudents.isFailed() ? "unavailable" : totalStudents.getValue()));
+        studentRepository.getStats().forEach((label, value) -> System.out.println(label + ": " + value));
         System.out.println("===========================");
     }
 
+    /**
+     * Helper method to look up a student, reporting why when there is none
+     * @return Student if found, null if missing or the database is unavailable
+     */
+    private Student findStudentOrReport(int id) {
+        QueryResult<Student> result = studentRepository.findStudentById(id);
+        if (result.isFailed()) {
+            System.out.println("✗ Database unavailable, please try again later.");
+        } else if (result.isNotFound()) {
+            System.out.println("✗ Student not found with ID: " + id);
+        }
+        return result.getValue();
+    }
+
     /**
      * Helper method to get integer input with validation
      */
@@ -260,7 +295,7 @@ public class StudentService {
     /**
      * Basic email validation
      */
-    private boolean isValidEmail(String email) {
+    static boolean isValidEmail(String email) {
         return email != null && email.contains("@") && email.contains(".")
                 && email.length() > 5 && !email.startsWith("@") && !email.endsWith("@");
     }
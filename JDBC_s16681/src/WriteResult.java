@@ -0,0 +1,18 @@
+/**
+ * Outcome of an insert, update or delete
+ * Distinguishes a write the store refused from one it could not carry out at all
+ */
+public enum WriteResult {
+    /** The row was written */
+    APPLIED,
+    /** No student with that id */
+    NOT_FOUND,
+    /** Refused by a constraint or invalid data, e.g. a duplicate email */
+    REJECTED,
+    /** The store could not be reached or did not answer in time */
+    FAILED;
+
+    public boolean isApplied() {
+        return this == APPLIED;
+    }
+}
@@ -0,0 +1,48 @@
+/**
+ * CircuitBreaker state transitions, including calls that finish after the circuit opened
+ */
+final class CircuitBreakerTest {
+
+    private CircuitBreakerTest() {}
+
+    static void register(TestRunner t) {
+        t.test("circuit breaker: opens after consecutive failures and fails fast", () -> {
+            CircuitBreaker breaker = new CircuitBreaker(3, 60_000);
+            breaker.recordFailure();
+            breaker.recordFailure();
+            breaker.recordSuccess();
+            breaker.recordFailure();
+            breaker.recordFailure();
+            TestRunner.assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+            breaker.recordFailure();
+            TestRunner.assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+            TestRunner.assertTrue(!breaker.allowRequest(), "open circuit let a call through");
+        });
+
+        t.test("circuit breaker: a call finishing after the trip does not close it", () -> {
+            CircuitBreaker breaker = new CircuitBreaker(1, 60_000);
+            breaker.recordFailure();
+            breaker.recordSuccess();
+            TestRunner.assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        });
+
+        t.test("circuit breaker: one probe after the cool-down decides the state", () -> {
+            CircuitBreaker breaker = new CircuitBreaker(1, 20);
+            breaker.recordFailure();
+            Thread.sleep(40);
+            TestRunner.assertTrue(breaker.allowRequest(), "probe not allowed after cool-down");
+            TestRunner.assertTrue(!breaker.allowRequest(), "second call allowed while probing");
+            TestRunner.assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+            breaker.recordFailure();
+            TestRunner.assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+            Thread.sleep(40);
+            TestRunner.assertTrue(breaker.allowRequest(), "probe not allowed after second cool-down");
+            breaker.recordSuccess();
+            TestRunner.assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+            TestRunner.assertTrue(breaker.allowRequest(), "closed circuit refused a call");
+        });
+    }
+}
@@ -0,0 +1,57 @@
+/**
+ * EmailBloomFilter never misses an added email and stays near its target false-positive rate
+ */
+final class EmailBloomFilterTest {
+
+    private EmailBloomFilterTest() {}
+
+    static void register(TestRunner t) {
+        t.test("bloom filter: added emails are always found", () -> {
+            EmailBloomFilter filter = new EmailBloomFilter(10_000, 0.01);
+            for (int i = 0; i < 10_000; i++) {
+                filter.add("student" + i + "@uni.edu");
+            }
+            for (int i = 0; i < 10_000; i++) {
+                TestRunner.assertTrue(filter.mightContain("student" + i + "@uni.edu"), "missed student" + i);
+            }
+            TestRunner.assertEquals(10_000L, filter.getInsertions());
+        });
+
+        t.test("bloom filter: false-positive rate is close to the target", () -> {
+            EmailBloomFilter filter = new EmailBloomFilter(10_000, 0.01);
+            for (int i = 0; i < 10_000; i++) {
+                filter.add("student" + i + "@uni.edu");
+            }
+            int falsePositives = 0;
+            int probes = 100_000;
+            for (int i = 0; i < probes; i++) {
+                if (filter.mightContain("other" + i + "@uni.edu")) {
+                    falsePositives++;
+                }
+            }
+            double rate = (double) falsePositives / probes;
+            TestRunner.assertTrue(rate < 0.02, "false-positive rate " + rate);
+            TestRunner.assertTrue(Math.abs(filter.expectedFalsePositiveRate() - 0.01) < 0.005,
+                    "expected rate " + filter.expectedFalsePositiveRate());
+        });
+
+        t.test("bloom filter: emails match like the UNIQUE index", () -> {
+            EmailBloomFilter filter = new EmailBloomFilter(100, 0.01);
+            filter.add("Ann@X.com");
+            TestRunner.assertTrue(filter.mightContain("ann@x.com"), "case");
+            TestRunner.assertTrue(filter.mightContain("ann@x.com  "), "trailing spaces");
+        });
+
+        t.test("bloom filter: accented emails are never ruled out", () -> {
+            EmailBloomFilter filter = new EmailBloomFilter(100, 0.01);
+            filter.add("ann@x.com");
+            // The collation treats jose@x.com and jos\u00e9@x.com as the same key
+            TestRunner.assertTrue(!filter.canRuleOut("jos\u00e9@x.com"), "accented lookup ruled out");
+            TestRunner.assertTrue(filter.mightContain("jos\u00e9@x.com"), "accented lookup");
+            TestRunner.assertTrue(!filter.mightContain("jose@x.com"), "plain lookup should be ruled out");
+
+            filter.add("jos\u00e9@x.com");
+            TestRunner.assertTrue(filter.mightContain("jose@x.com"), "plain lookup after an accented add");
+        });
+    }
+}
@@ -0,0 +1,205 @@
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Behaviour of InMemoryStudentRepository, including its indexes under concurrent writes
+ */
+final class InMemoryStudentRepositoryTest {
+
+    private InMemoryStudentRepositoryTest() {}
+
+    static void register(TestRunner t) {
+        t.test("in-memory: add assigns ids and lookups return copies", () -> {
+            InMemoryStudentRepository repo = new InMemoryStudentRepository();
+            TestRunner.assertEquals(WriteResult.APPLIED, repo.addStudent(new Student("Ann", "ann@x.com", 20, "CS")));
+            TestRunner.assertEquals(WriteResult.APPLIED, repo.addStudent(new Student("Bob", "bob@x.com", 21, "IT")));
+
+            Student ann = repo.findStudentById(1).getValue();
+            TestRunner.assertEquals("Ann", ann.getName());
+            TestRunner.assertEquals(2, repo.findStudentByEmail("BOB@X.COM").getValue().getId());
+
+            ann.setName("Changed");
+            TestRunner.assertEquals("Ann", repo.getStudentById(1).getName());
+            TestRunner.assertTrue(repo.findStudentById(99).isNotFound(), "missing id should be NOT_FOUND");
+            TestRunner.assertTrue(repo.findStudentByEmail("nobody@x.com").isNotFound(), "missing email should be NOT_FOUND");
+        });
+
+        t.test("in-memory: duplicate email and incomplete student are rejected", () -> {
+            InMemoryStudentRepository repo = new InMemoryStudentRepository();
+            repo.addStudent(new Student("Ann", "ann@x.com", 20, "CS"));
+            TestRunner.assertEquals(WriteResult.REJECTED, repo.addStudent(new Student("Other", "ANN@x.com", 22, "CS")));
+            TestRunner.assertEquals(WriteResult.REJECTED, repo.addStudent(new Student(null, "n@x.com", 22, "CS")));
+            TestRunner.assertEquals(1, repo.getStudentCount().getValue());
+        });
+
+        t.test("in-memory: update moves the email and name indexes", () -> {
+            InMemoryStudentRepository repo = new InMemoryStudentRepository();
+            repo.addStudent(new Student("Ann", "ann@x.com", 20, "CS"));
+            repo.addStudent(new Student("Bob", "bob@x.com", 21, "IT"));
+
+            TestRunner.assertEquals(WriteResult.APPLIED,
+                    repo.updateStudent(new Student(1, "Anna", "anna@x.com", 20, "CS")));
+            TestRunner.assertTrue(repo.findStudentByEmail("ann@x.com").isNotFound(), "old email should be free");
+            TestRunner.assertEquals(1, repo.findStudentByEmail("anna@x.com").getValue().getId());
+            TestRunner.assertEquals(1, repo.searchStudentsByName("anna").getValue().size());
+
+            TestRunner.assertEquals(WriteResult.REJECTED,
+                    repo.updateStudent(new Student(1, "Anna", "bob@x.com", 20, "CS")));
+            TestRunner.assertEquals(WriteResult.NOT_FOUND,
+                    repo.updateStudent(new Student(42, "Nobody", "nobody@x.com", 20, "CS")));
+        });
+
+        t.test("in-memory: delete reports NOT_FOUND the second time", () -> {
+            InMemoryStudentRepository repo = new InMemoryStudentRepository();
+            repo.addStudent(new Student("Ann", "ann@x.com", 20, "CS"));
+            TestRunner.assertEquals(WriteResult.APPLIED, repo.deleteStudent(1));
+            TestRunner.assertEquals(WriteResult.NOT_FOUND, repo.deleteStudent(1));
+            TestRunner.assertEquals(0, repo.getStudentCount().getValue());
+            TestRunner.assertTrue(repo.searchStudentsByName("ann").getValue().isEmpty(), "deleted name still indexed");
+            TestRunner.assertEquals(WriteResult.APPLIED, repo.addStudent(new Student("Ann", "ann@x.com", 20, "CS")));
+        });
+
+        t.test("in-memory: name search is case-insensitive, literal and ordered by name", () -> {
+            InMemoryStudentRepository repo = new InMemoryStudentRepository();
+            repo.addStudent(new Student("Joanne", "jo@x.com", 20, "CS"));
+            repo.addStudent(new Student("ann", "ann@x.com", 20, "CS"));
+            repo.addStudent(new Student("Dan", "dan@x.com", 20, "CS"));
+            repo.addStudent(new Student("a_b", "ab@x.com", 20, "CS"));
+
+            List<String> names = new ArrayList<>();
+            for (Student s : repo.searchStudentsByName("AN").getValue()) {
+                names.add(s.getName());
+            }
+            TestRunner.assertEquals(List.of("ann", "Dan", "Joanne"), names);
+            TestRunner.assertEquals(1, repo.searchStudentsByName("a_").getValue().size());
+            TestRunner.assertEquals(0, repo.searchStudentsByName("%").getValue().size());
+        });
+
+        t.test("in-memory: findStudents filters, sorts and limits", () -> {
+            InMemoryStudentRepository repo = new InMemoryStudentRepository();
+            repo.addStudent(new Student("Amy", "amy@x.com", 19, "CS"));
+            repo.addStudent(new Student("Andy", "andy@x.com", 23, "cs"));
+            repo.addStudent(new Student("Anna", "anna@x.com", 21, "CS"));
+            repo.addStudent(new Student("Alan", "alan@x.com", 21, "IT"));
+
+            List<Student> found = repo.findStudents(StudentQuery.builder()
+                    .nameStartsWith("an").course("CS").ageBetween(20, 30)
+                    .orderBy(StudentQuery.SortField.AGE, true).build()).getValue();
+            TestRunner.assertEquals(2, found.size());
+            TestRunner.assertEquals("Andy", found.get(0).getName());
+            TestRunner.assertEquals("Anna", found.get(1).getName());
+
+            List<Student> limited = repo.findStudents(StudentQuery.builder()
+                    .orderBy(StudentQuery.SortField.NAME, false).limit(2).build()).getValue();
+            TestRunner.assertEquals(2, limited.size());
+            TestRunner.assertEquals("Alan", limited.get(0).getName());
+        });
+
+        t.test("in-memory: stats count distinct names and courses", () -> {
+            InMemoryStudentRepository repo = new InMemoryStudentRepository();
+            repo.addStudent(new Student("Ann", "a1@x.com", 20, "CS"));
+            repo.addStudent(new Student("ann", "a2@x.com", 20, "CS"));
+            repo.addStudent(new Student("Bob", "b@x.com", 20, "IT"));
+            TestRunner.assertEquals("{Distinct Names=2, Courses=2}", repo.getStats().toString());
+        });
+
+        t.test("in-memory: concurrent renames never duplicate or strand a student", () -> {
+            InMemoryStudentRepository repo = new InMemoryStudentRepository();
+            repo.addStudent(new Student("Bob", "bob@x.com", 20, "CS"));
+            String[] names = {"Bob", "Rob", "Tob", "Cob"};
+            AtomicBoolean done = new AtomicBoolean();
+            ConcurrentLinkedQueue<String> problems = new ConcurrentLinkedQueue<>();
+
+            Thread reader = new Thread(() -> {
+                while (!done.get()) {
+                    List<Student> found = repo.searchStudentsByName("ob").getValue();
+                    if (found.size() > 1) {
+                        problems.add("search returned " + found.size() + " rows");
+                    }
+                }
+            });
+            reader.start();
+            runConcurrently(4, 20_000, i -> {
+                String name = names[ThreadLocalRandom.current().nextInt(names.length)];
+                repo.updateStudent(new Student(1, name, "bob@x.com", 20, "CS"));
+            });
+            done.set(true);
+            reader.join();
+
+            TestRunner.assertTrue(problems.isEmpty(), "concurrent search: " + problems.peek());
+            String current = repo.getStudentById(1).getName();
+            for (String name : names) {
+                int expected = name.equals(current) ? 1 : 0;
+                TestRunner.assertEquals(expected, repo.searchStudentsByName(name).getValue().size());
+            }
+            TestRunner.assertEquals(1, repo.findStudents(StudentQuery.builder()
+                    .nameStartsWith(current).build()).getValue().size());
+        });
+
+        t.test("in-memory: concurrent adds, updates and deletes keep indexes consistent", () -> {
+            InMemoryStudentRepository repo = new InMemoryStudentRepository();
+            runConcurrently(8, 2_000, i -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                int id = 1 + random.nextInt(200);
+                switch (random.nextInt(3)) {
+                    case 0 -> repo.addStudent(new Student("S" + i, "s" + i + "-" + random.nextLong() + "@x.com", 20, "CS"));
+                    case 1 -> repo.updateStudent(new Student(id, "U" + random.nextInt(5), "u" + id + "@x.com", 21, "IT"));
+                    default -> repo.deleteStudent(id);
+                }
+            });
+
+            List<Student> all = repo.getAllStudents().getValue();
+            TestRunner.assertEquals(all.size(), (int) repo.getStudentCount().getValue());
+
+            Set<Integer> ids = new HashSet<>();
+            for (Student s : repo.searchStudentsByName("").getValue()) {
+                TestRunner.assertTrue(ids.add(s.getId()), "student " + s.getId() + " found twice");
+            }
+            TestRunner.assertEquals(all.size(), ids.size());
+            for (Student s : all) {
+                TestRunner.assertEquals(s.getId(), repo.findStudentByEmail(s.getEmail()).getValue().getId());
+            }
+        });
+    }
+
+    /**
+     * Work run by each thread for each iteration
+     */
+    @FunctionalInterface
+    private interface Step {
+        void run(int iteration);
+    }
+
+    /**
+     * Start all threads together and wait for them to finish
+     */
+    private static void runConcurrently(int threads, int iterations, Step step) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int offset = t * iterations;
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < iterations; i++) {
+                    step.run(offset + i);
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+/**
+ * LatencyHistogram percentiles stay within the documented precision
+ */
+final class LatencyHistogramTest {
+
+    private LatencyHistogramTest() {}
+
+    static void register(TestRunner t) {
+        t.test("histogram: small values are exact", () -> {
+            LatencyHistogram histogram = new LatencyHistogram();
+            for (int i = 1; i <= 100; i++) {
+                histogram.record(i);
+            }
+            histogram.record(-5);
+            TestRunner.assertEquals(101L, histogram.getTotalCount());
+            TestRunner.assertEquals(0L, histogram.getMinValue());
+            TestRunner.assertEquals(100L, histogram.getMaxValue());
+            TestRunner.assertEquals(50L, histogram.getValueAtPercentile(50));
+            TestRunner.assertEquals(100L, histogram.getValueAtPercentile(100));
+        });
+
+        t.test("histogram: large percentiles are within 1.6%", () -> {
+            LatencyHistogram histogram = new LatencyHistogram();
+            for (long v = 1; v <= 100_000; v++) {
+                histogram.record(v * 1_000);
+            }
+            for (double p : new double[] {50, 90, 99, 99.9}) {
+                double exact = Math.ceil(p / 100.0 * 100_000) * 1_000;
+                double error = Math.abs(histogram.getValueAtPercentile(p) - exact) / exact;
+                TestRunner.assertTrue(error < 0.016, "p" + p + " off by " + error);
+            }
+            TestRunner.assertEquals(50_000_500.0, histogram.getMean());
+        });
+
+        t.test("histogram: merging adds counts and keeps extremes", () -> {
+            LatencyHistogram first = new LatencyHistogram();
+            LatencyHistogram second = new LatencyHistogram();
+            first.record(10);
+            first.record(20);
+            second.record(5_000_000);
+            first.add(second);
+            TestRunner.assertEquals(3L, first.getTotalCount());
+            TestRunner.assertEquals(10L, first.getMinValue());
+            TestRunner.assertEquals(5_000_000L, first.getMaxValue());
+            TestRunner.assertEquals(20L, first.getValueAtPercentile(66));
+            TestRunner.assertEquals(0L, new LatencyHistogram().getValueAtPercentile(99));
+        });
+    }
+}
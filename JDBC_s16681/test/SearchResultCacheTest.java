@@ -0,0 +1,117 @@
+import java.util.List;
+
+/**
+ * SearchResultCache must only answer a search the way the database would
+ */
+final class SearchResultCacheTest {
+
+    private SearchResultCacheTest() {}
+
+    static void register(TestRunner t) {
+        t.test("search cache: exact hit returns a copy", () -> {
+            SearchResultCache cache = new SearchResultCache(4, 60_000);
+            cache.put("Ann", List.of(student(1, "Ann")), cache.generation());
+
+            List<Student> hit = cache.get("ann");
+            TestRunner.assertEquals(1, hit.size());
+            hit.get(0).setName("Changed");
+            TestRunner.assertEquals("Ann", cache.get("ANN").get(0).getName());
+        });
+
+        t.test("search cache: longer term is answered by filtering a shorter one", () -> {
+            SearchResultCache cache = new SearchResultCache(4, 60_000);
+            cache.put("an", List.of(student(1, "Anne"), student(2, "Dan"), student(3, "Joanna")), cache.generation());
+
+            List<Student> refined = cache.get("ann");
+            TestRunner.assertEquals(2, refined.size());
+            TestRunner.assertEquals("Anne", refined.get(0).getName());
+            TestRunner.assertEquals("Joanna", refined.get(1).getName());
+            TestRunner.assertTrue(cache.getStats().contains("prefixHits=1"), cache.getStats());
+        });
+
+        t.test("search cache: LIKE wildcards are matched literally", () -> {
+            SearchResultCache cache = new SearchResultCache(4, 60_000);
+            cache.put("_", List.of(student(1, "a_b"), student(2, "x_y")), cache.generation());
+            List<Student> refined = cache.get("a_");
+            TestRunner.assertEquals(1, refined.size());
+            TestRunner.assertEquals("a_b", refined.get(0).getName());
+        });
+
+        t.test("search cache: terms are not trimmed", () -> {
+            SearchResultCache cache = new SearchResultCache(4, 60_000);
+            cache.put(" ann", List.of(), cache.generation());
+            TestRunner.assertEquals(null, cache.get("ann"));
+        });
+
+        t.test("search cache: accented terms and names bypass filtering", () -> {
+            SearchResultCache cache = new SearchResultCache(4, 60_000);
+            cache.put("josé", List.of(student(1, "José")), cache.generation());
+            TestRunner.assertEquals(null, cache.get("josé"));
+
+            // MySQL matches "jose" against "José", which a Java contains() would miss
+            cache.put("jo", List.of(student(1, "José"), student(2, "John")), cache.generation());
+            TestRunner.assertEquals(null, cache.get("jose"));
+            TestRunner.assertEquals(2, cache.get("jo").size());
+        });
+
+        t.test("search cache: writes evict the terms the new name matches", () -> {
+            SearchResultCache cache = new SearchResultCache(8, 60_000);
+            long generation = cache.generation();
+            cache.put("ann", List.of(student(1, "Ann")), generation);
+            cache.put("bob", List.of(student(2, "Bob")), generation);
+
+            cache.invalidateName("Joanne");
+            TestRunner.assertEquals(null, cache.get("ann"));
+            TestRunner.assertEquals(1, cache.get("bob").size());
+
+            cache.invalidateName("Zoë");
+            TestRunner.assertEquals(null, cache.get("bob"));
+        });
+
+        t.test("search cache: deleting a student evicts results holding it", () -> {
+            SearchResultCache cache = new SearchResultCache(8, 60_000);
+            long generation = cache.generation();
+            cache.put("ann", List.of(student(1, "Ann")), generation);
+            cache.put("bob", List.of(student(2, "Bob")), generation);
+
+            cache.invalidateId(2);
+            TestRunner.assertEquals(1, cache.get("ann").size());
+            TestRunner.assertEquals(null, cache.get("bob"));
+        });
+
+        t.test("search cache: a result read before a write is not stored", () -> {
+            SearchResultCache cache = new SearchResultCache(4, 60_000);
+            long before = cache.generation();
+            cache.invalidateName("Ann");
+            cache.put("ann", List.of(), before);
+            TestRunner.assertEquals(null, cache.get("ann"));
+        });
+
+        t.test("search cache: least recently used term is evicted", () -> {
+            SearchResultCache cache = new SearchResultCache(2, 60_000);
+            long generation = cache.generation();
+            cache.put("aaa", List.of(), generation);
+            cache.put("bbb", List.of(), generation);
+            cache.get("aaa");
+            cache.put("ccc", List.of(), generation);
+
+            TestRunner.assertEquals(null, cache.get("bbb"));
+            TestRunner.assertTrue(cache.get("aaa") != null, "recently used term was evicted");
+        });
+
+        t.test("search cache: results expire, including ones filtered from them", () -> {
+            SearchResultCache cache = new SearchResultCache(4, 50);
+            cache.put("an", List.of(student(1, "Anne")), cache.generation());
+            TestRunner.assertEquals(1, cache.get("ann").size());
+
+            Thread.sleep(80);
+            TestRunner.assertEquals(null, cache.get("ann"));
+            TestRunner.assertEquals(null, cache.get("an"));
+            TestRunner.assertTrue(cache.getStats().contains("expired=2"), cache.getStats());
+        });
+    }
+
+    private static Student student(int id, String name) {
+        return new Student(id, name, "s" + id + "@x.com", 20, "CS");
+    }
+}
@@ -0,0 +1,64 @@
+import java.io.StringWriter;
+import java.util.Map;
+
+/**
+ * StudentJson writes valid JSON and rejects malformed request bodies
+ */
+final class StudentJsonTest {
+
+    private StudentJsonTest() {}
+
+    static void register(TestRunner t) {
+        t.test("json: student is written with all fields", () -> {
+            StringWriter out = new StringWriter();
+            StudentJson.writeStudent(out, new Student(7, "Ann", "ann@x.com", 20, "CS"));
+            TestRunner.assertEquals("{\"id\":7,\"name\":\"Ann\",\"email\":\"ann@x.com\",\"age\":20,\"course\":\"CS\"}",
+                    out.toString());
+        });
+
+        t.test("json: strings are escaped and read back unchanged", () -> {
+            String value = "quote\" back\\slash\nline\ttab\u0001 é";
+            StringWriter out = new StringWriter();
+            StudentJson.writeString(out, value);
+            TestRunner.assertEquals("\"quote\\\" back\\\\slash\\nline\\ttab\\u0001 é\"", out.toString());
+
+            Map<String, Object> parsed = StudentJson.parseObject("{\"v\":" + out + "}");
+            TestRunner.assertEquals(value, parsed.get("v"));
+        });
+
+        t.test("json: null string is written as null", () -> {
+            StringWriter out = new StringWriter();
+            StudentJson.writeString(out, null);
+            TestRunner.assertEquals("null", out.toString());
+        });
+
+        t.test("json: flat object values keep their types and order", () -> {
+            Map<String, Object> parsed = StudentJson.parseObject(
+                    " { \"name\" : \"A\\u00e9\\/b\", \"age\": 21, \"gpa\": -3.5e0, \"ok\": true, \"no\": false, \"x\": null } ");
+            TestRunner.assertEquals("[name, age, gpa, ok, no, x]", parsed.keySet().toString());
+            TestRunner.assertEquals("Aé/b", parsed.get("name"));
+            TestRunner.assertEquals(21L, parsed.get("age"));
+            TestRunner.assertEquals(-3.5, parsed.get("gpa"));
+            TestRunner.assertEquals(Boolean.TRUE, parsed.get("ok"));
+            TestRunner.assertEquals(Boolean.FALSE, parsed.get("no"));
+            TestRunner.assertTrue(parsed.containsKey("x") && parsed.get("x") == null, "null value lost");
+            TestRunner.assertTrue(StudentJson.parseObject("{}").isEmpty(), "empty object not empty");
+        });
+
+        t.test("json: malformed bodies are rejected", () -> {
+            String[] bad = {
+                "", "[]", "{", "{\"a\":1", "{\"a\" 1}", "{\"a\":1,}", "{\"a\":1} x",
+                "{a:1}", "{\"a\":\"\\x\"}", "{\"a\":\"\\u12\"}", "{\"a\":\"open}", "{\"a\":1-2}",
+                "{\"a\":{}}", "{\"a\":tru}"
+            };
+            for (String body : bad) {
+                try {
+                    StudentJson.parseObject(body);
+                    throw new AssertionError("accepted: " + body);
+                } catch (IllegalArgumentException expected) {
+                    // Rejected as it should be
+                }
+            }
+        });
+    }
+}
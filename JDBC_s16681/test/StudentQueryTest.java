@@ -0,0 +1,76 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * StudentQuery validation and evaluation, and the SQL StudentDAO compiles from it
+ */
+final class StudentQueryTest {
+
+    private StudentQueryTest() {}
+
+    static void register(TestRunner t) {
+        t.test("query: builder rejects empty text, bad ranges and limits", () -> {
+            TestRunner.assertThrows(IllegalArgumentException.class, () -> StudentQuery.builder().nameContains("  "));
+            TestRunner.assertThrows(IllegalArgumentException.class, () -> StudentQuery.builder().course(null));
+            TestRunner.assertThrows(IllegalArgumentException.class, () -> StudentQuery.builder().ageBetween(30, 20));
+            TestRunner.assertThrows(IllegalArgumentException.class, () -> StudentQuery.builder().minAge(30).maxAge(20).build());
+            TestRunner.assertThrows(IllegalArgumentException.class, () -> StudentQuery.builder().limit(0));
+            TestRunner.assertThrows(IllegalArgumentException.class, () -> StudentQuery.builder().orderBy(null, false));
+            TestRunner.assertEquals("ann", StudentQuery.builder().nameContains(" ann ").build().getNameContains());
+        });
+
+        t.test("query: matches is case-insensitive and bounds are inclusive", () -> {
+            StudentQuery query = StudentQuery.builder()
+                    .nameStartsWith("AN").course("cs").ageBetween(20, 22).build();
+            TestRunner.assertTrue(query.matches(new Student(1, "anna", "a@x.com", 20, "CS")), "lower bound");
+            TestRunner.assertTrue(query.matches(new Student(2, "Andy", "b@x.com", 22, "Cs")), "upper bound");
+            TestRunner.assertTrue(!query.matches(new Student(3, "Dan", "c@x.com", 21, "CS")), "prefix");
+            TestRunner.assertTrue(!query.matches(new Student(4, "Anne", "d@x.com", 23, "CS")), "age");
+            TestRunner.assertTrue(!query.matches(new Student(5, "Anne", "e@x.com", 21, "IT")), "course");
+        });
+
+        t.test("query: comparator breaks ties by id", () -> {
+            List<Student> students = new ArrayList<>(List.of(
+                    new Student(3, "B", "c@x.com", 20, "CS"),
+                    new Student(1, "a", "a@x.com", 21, "CS"),
+                    new Student(2, "A", "b@x.com", 20, "CS")));
+
+            students.sort(StudentQuery.builder().orderBy(StudentQuery.SortField.NAME, false).build().comparator());
+            TestRunner.assertEquals(List.of(1, 2, 3), ids(students));
+
+            students.sort(StudentQuery.builder().orderBy(StudentQuery.SortField.AGE, true).build().comparator());
+            TestRunner.assertEquals(List.of(1, 2, 3), ids(students));
+        });
+
+        t.test("query: shape depends on the conditions present, not their values", () -> {
+            String first = StudentQuery.builder().nameContains("ann").minAge(20).build().shape();
+            String second = StudentQuery.builder().minAge(30).nameContains("bob").build().shape();
+            TestRunner.assertEquals(first, second);
+            TestRunner.assertTrue(!first.equals(StudentQuery.builder().nameContains("ann").build().shape()), "shape ignored age");
+            TestRunner.assertTrue(!first.equals(StudentQuery.builder().nameContains("ann").minAge(20).limit(5).build().shape()),
+                    "shape ignored limit");
+        });
+
+        t.test("query: compiled SQL uses placeholders and a stable order", () -> {
+            TestRunner.assertEquals("SELECT id, name, email, age, course_id FROM students1 ORDER BY id ASC",
+                    StudentDAO.compileQuery(StudentQuery.builder().build()));
+            TestRunner.assertEquals("SELECT id, name, email, age, course_id FROM students1"
+                            + " WHERE course_id = ? AND age BETWEEN ? AND ? AND name LIKE ? ORDER BY name DESC, id LIMIT ?",
+                    StudentDAO.compileQuery(StudentQuery.builder().nameStartsWith("O'Brien").course("CS")
+                            .ageBetween(18, 30).orderBy(StudentQuery.SortField.NAME, true).limit(10).build()));
+        });
+
+        t.test("query: LIKE wildcards are escaped", () -> {
+            TestRunner.assertEquals("50\\%\\_off\\\\", StudentDAO.escapeLike("50%_off\\"));
+            TestRunner.assertEquals("plain", StudentDAO.escapeLike("plain"));
+        });
+    }
+
+    private static List<Integer> ids(List<Student> students) {
+        List<Integer> ids = new ArrayList<>();
+        for (Student s : students) {
+            ids.add(s.getId());
+        }
+        return ids;
+    }
+}
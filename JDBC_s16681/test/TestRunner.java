@@ -0,0 +1,79 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Runs the behaviour tests without MySQL or a test library
+ * Each test class registers named cases with the runner; the exit status is non-zero on failure
+ */
+public class TestRunner {
+
+    /**
+     * Body of one test case
+     */
+    @FunctionalInterface
+    public interface TestCase {
+        void run() throws Exception;
+    }
+
+    private final List<String> failures = new ArrayList<>();
+    private int passed;
+
+    /**
+     * Main method - run every test class and print a summary
+     */
+    public static void main(String[] args) {
+        TestRunner runner = new TestRunner();
+        InMemoryStudentRepositoryTest.register(runner);
+        SearchResultCacheTest.register(runner);
+        StudentJsonTest.register(runner);
+        LatencyHistogramTest.register(runner);
+        EmailBloomFilterTest.register(runner);
+        StudentQueryTest.register(runner);
+        CircuitBreakerTest.register(runner);
+
+        System.out.println("\n" + runner.passed + " passed, " + runner.failures.size() + " failed");
+        for (String failure : runner.failures) {
+            System.out.println("  " + failure);
+        }
+        System.exit(runner.failures.isEmpty() ? 0 : 1);
+    }
+
+    /**
+     * Run one named case, recording a failure instead of stopping the run
+     */
+    public void test(String name, TestCase body) {
+        try {
+            body.run();
+            passed++;
+            System.out.println("PASS " + name);
+        } catch (Throwable t) {
+            failures.add(name + ": " + t);
+            System.out.println("FAIL " + name + ": " + t);
+        }
+    }
+
+    static void assertEquals(Object expected, Object actual) {
+        if (!Objects.equals(expected, actual)) {
+            throw new AssertionError("expected <" + expected + "> but was <" + actual + ">");
+        }
+    }
+
+    static void assertTrue(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+
+    static void assertThrows(Class<? extends Throwable> type, TestCase body) {
+        try {
+            body.run();
+        } catch (Throwable t) {
+            if (type.isInstance(t)) {
+                return;
+            }
+            throw new AssertionError("expected " + type.getSimpleName() + " but got " + t);
+        }
+        throw new AssertionError("expected " + type.getSimpleName() + " but nothing was thrown");
+    }
+}